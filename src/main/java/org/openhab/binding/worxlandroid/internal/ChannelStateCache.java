@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link ChannelStateCache} keeps the last published value of each channel by its index in the
+ * {@link ChannelTable}, so a channel is only updated if its value changed. Numbers and switches are kept as primitive
+ * values, no state objects are created for unchanged values.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class ChannelStateCache {
+
+    private Slot[] slots = new Slot[0];
+
+    /**
+     * @param index index of the channel
+     * @param value
+     * @return true if the value differs from the last published value, which is replaced by the given value
+     */
+    public synchronized boolean changed(int index, long value) {
+
+        Slot slot = getSlot(index);
+        if (slot.valid && slot.object == null && slot.number == value) {
+            return false;
+        }
+        slot.valid = true;
+        slot.object = null;
+        slot.number = value;
+        return true;
+    }
+
+    /**
+     * @param index index of the channel
+     * @param value
+     * @return true if the value differs from the last published value, which is replaced by the given value
+     */
+    public synchronized boolean changed(int index, boolean value) {
+        return changed(index, value ? 1L : 0L);
+    }
+
+    /**
+     * @param index index of the channel
+     * @param value e.g. String or BigDecimal, compared with equals
+     * @return true if the value differs from the last published value, which is replaced by the given value
+     */
+    public synchronized boolean changed(int index, Object value) {
+
+        Slot slot = getSlot(index);
+        if (slot.valid && value.equals(slot.object)) {
+            return false;
+        }
+        slot.valid = true;
+        slot.object = value;
+        return true;
+    }
+
+    /**
+     * The next value of the channel is published even if unchanged, e.g. after a command to the channel which could
+     * be rejected by the mower.
+     *
+     * @param index index of the channel
+     */
+    public synchronized void invalidate(int index) {
+        if (index < slots.length) {
+            slots[index].valid = false;
+        }
+    }
+
+    /**
+     * The next value of every channel is published even if unchanged.
+     */
+    public synchronized void invalidateAll() {
+        for (Slot slot : slots) {
+            slot.valid = false;
+        }
+    }
+
+    private Slot getSlot(int index) {
+
+        if (index >= slots.length) {
+            int length = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(index + 1, length * 2));
+            for (int i = length; i < slots.length; i++) {
+                slots[i] = new Slot();
+            }
+        }
+        return slots[index];
+    }
+
+    /**
+     * Last published value of a channel
+     */
+    private static class Slot {
+        private boolean valid;
+        private long number;
+        private @Nullable Object object;
+    }
+}
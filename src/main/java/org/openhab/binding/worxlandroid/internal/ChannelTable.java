@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.worxlandroid.internal.mqtt.MowerState;
+
+import com.amazonaws.services.iot.client.AWSIotException;
+
+/**
+ * The {@link ChannelTable} is built once per thing and maps
+ * <ul>
+ * <li>values of a decoded {@link MowerState} to their channel and state (payload path -> channel -> converter)</li>
+ * <li>channels to their command handler</li>
+ * </ul>
+ * Channel UIDs are created once, so updating channels and dispatching commands are table lookups without formatting
+ * channel names or matching regular expressions. Channels are only updated if their value changed, see
+ * {@link ChannelStateCache}.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class ChannelTable {
+
+    /**
+     * Handles a command sent to a channel
+     */
+    @FunctionalInterface
+    public interface CommandHandler {
+        void handle(Command command) throws AWSIotException;
+    }
+
+    /**
+     * Publishes a value of a decoded status message
+     */
+    @FunctionalInterface
+    private interface ValueMapping {
+        void publish(MowerState state);
+    }
+
+    private final ThingUID thingUID;
+    private final BiConsumer<ChannelUID, State> updater;
+    private final ChannelStateCache stateCache = new ChannelStateCache();
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Entry> entriesById = new HashMap<>();
+    private final List<ValueMapping> valueMappings = new ArrayList<>();
+
+    /**
+     * @param thingUID
+     * @param updater updates the state of a channel
+     */
+    public ChannelTable(ThingUID thingUID, BiConsumer<ChannelUID, State> updater) {
+        this.thingUID = thingUID;
+        this.updater = updater;
+    }
+
+    /**
+     * @param channelId e.g. "common#enable"
+     * @return entry of the channel, created if not yet part of the table
+     */
+    public Entry channel(String channelId) {
+
+        Entry entry = entriesById.get(channelId);
+        if (entry == null) {
+            entry = new Entry(entries.size(), new ChannelUID(thingUID, channelId));
+            entries.add(entry);
+            entriesById.put(channelId, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * @param channelId
+     * @return entry of the channel, null if not part of the table
+     */
+    public @Nullable Entry get(String channelId) {
+        return entriesById.get(channelId);
+    }
+
+    /**
+     * @param channelId
+     * @param commandHandler handles the commands sent to the channel
+     */
+    public void onCommand(String channelId, CommandHandler commandHandler) {
+        channel(channelId).commandHandler = commandHandler;
+    }
+
+    /**
+     * @param flag flag of the value, see {@link MowerState}
+     * @param channelId
+     * @param getter
+     */
+    public void mapNumber(long flag, String channelId, ToLongFunction<MowerState> getter) {
+
+        Entry entry = channel(channelId);
+        valueMappings.add(state -> {
+            if (state.has(flag)) {
+                updateNumber(entry, getter.applyAsLong(state));
+            }
+        });
+    }
+
+    /**
+     * @param flag flag of the value, see {@link MowerState}
+     * @param channelId
+     * @param getter
+     */
+    public void mapDecimal(long flag, String channelId, Function<MowerState, BigDecimal> getter) {
+
+        Entry entry = channel(channelId);
+        valueMappings.add(state -> {
+            if (state.has(flag)) {
+                updateDecimal(entry, getter.apply(state));
+            }
+        });
+    }
+
+    /**
+     * @param flag flag of the value, see {@link MowerState}
+     * @param channelId
+     * @param getter
+     */
+    public void mapString(long flag, String channelId, Function<MowerState, String> getter) {
+
+        Entry entry = channel(channelId);
+        valueMappings.add(state -> {
+            if (state.has(flag)) {
+                updateString(entry, getter.apply(state));
+            }
+        });
+    }
+
+    /**
+     * @param flag flag of the value, see {@link MowerState}
+     * @param channelId
+     * @param getter
+     */
+    public void mapSwitch(long flag, String channelId, Predicate<MowerState> getter) {
+
+        Entry entry = channel(channelId);
+        valueMappings.add(state -> {
+            if (state.has(flag)) {
+                updateSwitch(entry, getter.test(state));
+            }
+        });
+    }
+
+    /**
+     * Update the channels of all mapped values which are part of the decoded message.
+     *
+     * @param state
+     */
+    public void publish(MowerState state) {
+        for (ValueMapping valueMapping : valueMappings) {
+            valueMapping.publish(state);
+        }
+    }
+
+    /**
+     * Update channel if the value changed.
+     *
+     * @param entry
+     * @param value
+     */
+    public void updateNumber(Entry entry, long value) {
+        if (stateCache.changed(entry.index, value)) {
+            publish(entry, new DecimalType(value));
+        }
+    }
+
+    /**
+     * Update channel if the value changed.
+     *
+     * @param entry
+     * @param value
+     */
+    public void updateDecimal(Entry entry, BigDecimal value) {
+        if (stateCache.changed(entry.index, value)) {
+            publish(entry, new DecimalType(value));
+        }
+    }
+
+    /**
+     * Update channel if the value changed.
+     *
+     * @param entry
+     * @param value
+     */
+    public void updateString(Entry entry, String value) {
+        if (stateCache.changed(entry.index, value)) {
+            publish(entry, new StringType(value));
+        }
+    }
+
+    /**
+     * Update channel if the value changed.
+     *
+     * @param entry
+     * @param value
+     */
+    public void updateSwitch(Entry entry, boolean value) {
+        if (stateCache.changed(entry.index, value)) {
+            publish(entry, OnOffType.from(value));
+        }
+    }
+
+    /**
+     * Update channel, even if the value is unchanged.
+     *
+     * @param entry
+     * @param state
+     */
+    public void update(Entry entry, State state) {
+        publish(entry, state);
+    }
+
+    /**
+     * Publish the last value of the channel again, e.g. on REFRESH.
+     *
+     * @param entry
+     * @return false if no value was published yet
+     */
+    public boolean refresh(Entry entry) {
+
+        State state = entry.state;
+        if (state == null) {
+            return false;
+        }
+        updater.accept(entry.channelUID, state);
+        return true;
+    }
+
+    private void publish(Entry entry, State state) {
+        entry.state = state;
+        updater.accept(entry.channelUID, state);
+    }
+
+    /**
+     * The next value of the channel is published even if unchanged.
+     *
+     * @param entry
+     */
+    public void invalidate(Entry entry) {
+        stateCache.invalidate(entry.index);
+    }
+
+    /**
+     * The next value of every channel is published even if unchanged.
+     */
+    public void invalidateAll() {
+        stateCache.invalidateAll();
+    }
+
+    /**
+     * Channel of the table
+     */
+    public static class Entry {
+
+        private final int index;
+        private final ChannelUID channelUID;
+        private @Nullable CommandHandler commandHandler;
+        // last published state
+        private volatile @Nullable State state;
+
+        private Entry(int index, ChannelUID channelUID) {
+            this.index = index;
+            this.channelUID = channelUID;
+        }
+
+        public ChannelUID getChannelUID() {
+            return channelUID;
+        }
+
+        public @Nullable CommandHandler getCommandHandler() {
+            return commandHandler;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link FleetCommandResult} aggregates the results of a command sent to several mowers at once.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class FleetCommandResult {
+
+    /**
+     * Result of a single mower
+     */
+    public enum State {
+        /** mower answered with a status message */
+        ANSWERED,
+        /** no answer within the timeout */
+        TIMEOUT,
+        /** command could not be published */
+        FAILED
+    }
+
+    private final String command;
+    private final long duration;
+    private final List<MowerResult> results;
+
+    /**
+     * @param command
+     * @param duration time in milliseconds until all mowers answered or the timeout elapsed
+     * @param results
+     */
+    public FleetCommandResult(String command, long duration, List<MowerResult> results) {
+        this.command = command;
+        this.duration = duration;
+        this.results = Collections.unmodifiableList(new ArrayList<>(results));
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public List<MowerResult> getResults() {
+        return results;
+    }
+
+    /**
+     * @param state
+     * @return number of mowers with given result
+     */
+    public int count(State state) {
+
+        int count = 0;
+        for (MowerResult result : results) {
+            if (result.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return max. round trip of the answered mowers in milliseconds
+     */
+    public long getMaxRoundTrip() {
+
+        long max = 0;
+        for (MowerResult result : results) {
+            if (result.getState() == State.ANSWERED) {
+                max = Math.max(max, result.getRoundTrip());
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%s: %d/%d answered in %d ms (max round trip %d ms)", command,
+                count(State.ANSWERED), results.size(), duration, getMaxRoundTrip()));
+        for (MowerResult result : results) {
+            if (result.getState() != State.ANSWERED) {
+                builder.append(", ").append(result.getSerialNumber()).append(' ').append(result.getState());
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Result of a single mower
+     */
+    public static class MowerResult {
+
+        private final String serialNumber;
+        private final State state;
+        private final long roundTrip;
+        private final @Nullable String error;
+
+        /**
+         * @param serialNumber
+         * @param state
+         * @param roundTrip time in milliseconds between publish and answer, -1 if not answered
+         * @param error reason if failed
+         */
+        public MowerResult(String serialNumber, State state, long roundTrip, @Nullable String error) {
+            this.serialNumber = serialNumber;
+            this.state = state;
+            this.roundTrip = roundTrip;
+            this.error = error;
+        }
+
+        public String getSerialNumber() {
+            return serialNumber;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public long getRoundTrip() {
+            return roundTrip;
+        }
+
+        public @Nullable String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("MowerResult [serialNumber='%s', state='%s', roundTrip='%d', error='%s']",
+                    serialNumber, state, roundTrip, error);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal;
+
+import static org.openhab.binding.worxlandroid.internal.WorxLandroidBindingConstants.*;
+
+import java.math.BigDecimal;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.worxlandroid.internal.mqtt.TrafficStats;
+
+/**
+ * The {@link MetricsChannels} maps {@link TrafficStats} to the channels of the 'metrics' channel group, which is used
+ * by the bridge (all mowers) and by each mower.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class MetricsChannels {
+
+    private static final double[] LAG_PERCENTILES = { 50, 95, 100 };
+
+    private MetricsChannels() {
+    }
+
+    /**
+     * @param stats statistics of all topics
+     * @param updater updates the state of a channel
+     */
+    public static void update(TrafficStats stats, BiConsumer<String, State> updater) {
+        update(stats, stats, updater);
+    }
+
+    /**
+     * @param inbound statistics of the subscribed topic (received messages and lag)
+     * @param outbound statistics of the published topic (sent messages)
+     * @param updater updates the state of a channel
+     */
+    public static void update(TrafficStats inbound, TrafficStats outbound, BiConsumer<String, State> updater) {
+
+        updater.accept(CHANNELNAME_METRICS_MESSAGES_IN_RATE, new DecimalType(inbound.getMessagesInPerMinute()));
+        updater.accept(CHANNELNAME_METRICS_MESSAGES_OUT_RATE, new DecimalType(outbound.getMessagesOutPerMinute()));
+        updater.accept(CHANNELNAME_METRICS_BYTES_IN, new DecimalType(inbound.getBytesIn()));
+        updater.accept(CHANNELNAME_METRICS_BYTES_OUT, new DecimalType(outbound.getBytesOut()));
+        updater.accept(CHANNELNAME_METRICS_DUPLICATES_IN, new DecimalType(inbound.getDuplicatesIn()));
+
+        long[] lags = inbound.getLag().getPercentiles(LAG_PERCENTILES);
+        updater.accept(CHANNELNAME_METRICS_LAG_MEDIAN, toSeconds(lags[0]));
+        updater.accept(CHANNELNAME_METRICS_LAG_P95, toSeconds(lags[1]));
+        updater.accept(CHANNELNAME_METRICS_LAG_MAX, toSeconds(lags[2]));
+
+        long[] pubackLatencies = outbound.getPubackLatency().getPercentiles(LAG_PERCENTILES);
+        updater.accept(CHANNELNAME_METRICS_PUBACK_LATENCY_MEDIAN, toSeconds(pubackLatencies[0]));
+        updater.accept(CHANNELNAME_METRICS_PUBACK_LATENCY_P95, toSeconds(pubackLatencies[1]));
+        updater.accept(CHANNELNAME_METRICS_PUBLISH_FAILURES, new DecimalType(outbound.getPublishFailures()));
+
+        long[] roundTrips = inbound.getRoundTrip().getPercentiles(LAG_PERCENTILES);
+        updater.accept(CHANNELNAME_METRICS_ROUND_TRIP_MEDIAN, toSeconds(roundTrips[0]));
+        updater.accept(CHANNELNAME_METRICS_ROUND_TRIP_P95, toSeconds(roundTrips[1]));
+    }
+
+    private static DecimalType toSeconds(long millis) {
+        return new DecimalType(BigDecimal.valueOf(millis, 3));
+    }
+}
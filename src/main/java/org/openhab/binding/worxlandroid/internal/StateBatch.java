@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * The {@link StateBatch} collects channel updates within a short window and publishes them together when the window
+ * closes. Updates of the same channel within the window replace each other, so only the latest value is published
+ * and bursts (e.g. a poll answer followed by a spontaneous status message) don't reach persistence as transient
+ * intermediate values.
+ * <p>
+ * A window of 0 disables batching, updates are published immediately. Updates of immediate channels (e.g. the status
+ * and error of the mower) are never delayed.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class StateBatch implements BiConsumer<ChannelUID, State> {
+
+    private final BiConsumer<ChannelUID, State> updater;
+    private final ScheduledExecutorService scheduler;
+    // channels which are published without waiting for the window
+    private final Set<ChannelUID> immediateChannels = ConcurrentHashMap.newKeySet();
+
+    // window in ms, 0 = disabled
+    private volatile long window;
+
+    // latest state per channel, in order of the first update within the window (guarded by this)
+    private final Map<ChannelUID, State> pending = new LinkedHashMap<>();
+    private @Nullable ScheduledFuture<?> flushJob;
+
+    /**
+     * @param updater updates the state of a channel
+     * @param scheduler
+     */
+    public StateBatch(BiConsumer<ChannelUID, State> updater, ScheduledExecutorService scheduler) {
+        this.updater = updater;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param window window in ms, 0 = publish immediately
+     */
+    public void setWindow(long window) {
+        this.window = Math.max(0, window);
+        if (this.window == 0) {
+            flush();
+        }
+    }
+
+    public long getWindow() {
+        return window;
+    }
+
+    /**
+     * Updates of the channel are published immediately, even while a window is open.
+     *
+     * @param channelUID
+     */
+    public void addImmediate(ChannelUID channelUID) {
+        immediateChannels.add(channelUID);
+    }
+
+    @Override
+    public void accept(ChannelUID channelUID, State state) {
+
+        long currentWindow = window;
+        if (currentWindow <= 0 || immediateChannels.contains(channelUID)) {
+            updater.accept(channelUID, state);
+            return;
+        }
+
+        synchronized (this) {
+            pending.put(channelUID, state);
+            if (flushJob == null) {
+                flushJob = scheduler.schedule(this::flush, currentWindow, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Publish all pending updates now.
+     */
+    public void flush() {
+
+        Map<ChannelUID, State> updates;
+        synchronized (this) {
+            ScheduledFuture<?> job = flushJob;
+            if (job != null) {
+                job.cancel(false);
+                flushJob = null;
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            updates = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+
+        // publish outside the lock, the callback may block
+        updates.forEach(updater);
+    }
+}
@@ -44,12 +44,14 @@ public class WorxLandroidBindingConstants {
     public static final String CHANNELNAME_ACTION = "common#action";
     public static final String CHANNELNAME_ENABLE = "common#enable";
     public static final String CHANNELNAME_LOCK = "common#lock";
+    public static final String CHANNELNAME_ALERT = "common#alert";
 
     // cfgCommon
     public static final String CHANNELNAME_ID = "cfgCommon#id";
     public static final String CHANNELNAME_SERIAL_NUMBER = "cfgCommon#serialNumber";
     public static final String CHANNELNAME_LANGUAGE = "cfgCommon#language";
     public static final String CHANNELNAME_DATETIME = "cfgCommon#lastUpdate";
+    public static final String CHANNELNAME_CLOCK_DRIFT = "cfgCommon#clockDrift";
     public static final String CHANNELNAME_COMMAND = "cfgCommon#command";
     public static final String CHANNELNAME_RAIN_DELAY = "cfgCommon#rainDelay";
 
@@ -83,6 +85,26 @@ public class WorxLandroidBindingConstants {
     public static final String CHANNELNAME_TOTAL_DISTANCE = "datSt#totalDistance";
     public static final String CHANNELNAME_TOTAL_TIME = "datSt#totalTime";
 
+    // metrics (bridge and mower)
+    public static final String CHANNELNAME_METRICS_MESSAGES_IN_RATE = "metrics#messagesInRate";
+    public static final String CHANNELNAME_METRICS_MESSAGES_OUT_RATE = "metrics#messagesOutRate";
+    public static final String CHANNELNAME_METRICS_BYTES_IN = "metrics#bytesIn";
+    public static final String CHANNELNAME_METRICS_BYTES_OUT = "metrics#bytesOut";
+    public static final String CHANNELNAME_METRICS_DUPLICATES_IN = "metrics#duplicatesIn";
+    public static final String CHANNELNAME_METRICS_LAG_MEDIAN = "metrics#lagMedian";
+    public static final String CHANNELNAME_METRICS_LAG_P95 = "metrics#lagP95";
+    public static final String CHANNELNAME_METRICS_LAG_MAX = "metrics#lagMax";
+    public static final String CHANNELNAME_METRICS_PUBACK_LATENCY_MEDIAN = "metrics#pubackLatencyMedian";
+    public static final String CHANNELNAME_METRICS_PUBACK_LATENCY_P95 = "metrics#pubackLatencyP95";
+    public static final String CHANNELNAME_METRICS_PUBLISH_FAILURES = "metrics#publishFailures";
+    public static final String CHANNELNAME_METRICS_ROUND_TRIP_MEDIAN = "metrics#roundTripMedian";
+    public static final String CHANNELNAME_METRICS_ROUND_TRIP_P95 = "metrics#roundTripP95";
+
+    // bridge channels
+    public static final String CHANNELNAME_ARCHIVE_REPLAY = "archive#replay";
+    public static final String CHANNELNAME_FLEET_COMMAND = "fleet#command";
+    public static final String CHANNELNAME_FLEET_RESULT = "fleet#result";
+
     //
     public static final String CHANNELNAME_PREFIX_ALLOCATION = "cfgMultiZones#allocation";
     public static final String CHANNELNAME_MULTIZONE_ENABLE = "cfgMultiZones#enable";
@@ -12,33 +12,67 @@
  */
 package org.openhab.binding.worxlandroid.internal;
 
+import static org.openhab.binding.worxlandroid.internal.WorxLandroidBindingConstants.CHANNELNAME_ARCHIVE_REPLAY;
+import static org.openhab.binding.worxlandroid.internal.WorxLandroidBindingConstants.CHANNELNAME_FLEET_COMMAND;
+import static org.openhab.binding.worxlandroid.internal.WorxLandroidBindingConstants.CHANNELNAME_FLEET_RESULT;
 import static org.openhab.binding.worxlandroid.internal.webapi.response.ApiResponse.MN_MQTTENDPOINT;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.security.KeyStore;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.cert.CertificateException;
-import java.util.Base64;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.net.ssl.SSLContext;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.library.types.StringType;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
+import org.openhab.binding.worxlandroid.internal.FleetCommandResult.MowerResult;
+import org.openhab.binding.worxlandroid.internal.codes.UnknownCodeRecorder;
+import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidActionCodes;
 import org.openhab.binding.worxlandroid.internal.config.BridgeConfiguration;
 import org.openhab.binding.worxlandroid.internal.discovery.MowerDiscoveryService;
 import org.openhab.binding.worxlandroid.internal.mqtt.AWSClient;
 import org.openhab.binding.worxlandroid.internal.mqtt.AWSClientCallback;
 import org.openhab.binding.worxlandroid.internal.mqtt.AWSMessage;
-import org.openhab.binding.worxlandroid.internal.mqtt.AWSTopic;
+import org.openhab.binding.worxlandroid.internal.mqtt.AWSMessageCallback;
+import org.openhab.binding.worxlandroid.internal.mqtt.AWSMessageQueue;
+import org.openhab.binding.worxlandroid.internal.mqtt.AWSSubscriptionRegistry;
+import org.openhab.binding.worxlandroid.internal.mqtt.AWSTlsContextCache;
+import org.openhab.binding.worxlandroid.internal.mqtt.ArchivedMessage;
+import org.openhab.binding.worxlandroid.internal.mqtt.CommandEncoder;
+import org.openhab.binding.worxlandroid.internal.mqtt.InflightMessage;
+import org.openhab.binding.worxlandroid.internal.mqtt.InflightWindow;
+import org.openhab.binding.worxlandroid.internal.mqtt.MessageArchive;
+import org.openhab.binding.worxlandroid.internal.mqtt.MqttMetrics;
+import org.openhab.binding.worxlandroid.internal.mqtt.MqttTransport;
+import org.openhab.binding.worxlandroid.internal.mqtt.PahoClient;
+import org.openhab.binding.worxlandroid.internal.mqtt.PayloadScanner;
+import org.openhab.binding.worxlandroid.internal.mqtt.PublishListener;
+import org.openhab.binding.worxlandroid.internal.mqtt.ReconnectPolicy;
 import org.openhab.binding.worxlandroid.internal.webapi.WebApiException;
 import org.openhab.binding.worxlandroid.internal.webapi.WorxLandroidWebApiImpl;
 import org.openhab.binding.worxlandroid.internal.webapi.response.UsersCertificateResponse;
@@ -47,6 +81,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.amazonaws.services.iot.client.AWSIotException;
+import com.amazonaws.services.iot.client.AWSIotMessage;
+import com.amazonaws.services.iot.client.AWSIotQos;
 
 /**
  * The {@link WorxLandroidBridgeHandler} is responsible for handling commands, which are
@@ -55,17 +91,81 @@ import com.amazonaws.services.iot.client.AWSIotException;
  * @author Nils - Initial contribution
  */
 @NonNullByDefault
-public class WorxLandroidBridgeHandler extends BaseBridgeHandler implements AWSClientCallback {
+public class WorxLandroidBridgeHandler extends BaseBridgeHandler {
 
     private final Logger logger = LoggerFactory.getLogger(WorxLandroidBridgeHandler.class);
 
     private static final String EMPTY_PASSWORD = "";
+    private static final String PROPERTY_ACTIVE_SUBSCRIPTIONS = "activeSubscriptions";
+    private static final String PROPERTY_CONNECTIONS = "connections";
+    private static final String PROPERTY_UNKNOWN_CODES = "unknownCodes";
+    private static final int METRICS_INTERVAL = 30;
+
+    // 'command_out' topics of all mowers, e.g. PRM100/<mac>/commandOut, only subscribed on a local broker
+    private static final String DISCOVERY_TOPIC = "+/+/commandOut";
+    private static final String DISCOVERY_KEY = "discovery";
+    // max. number of topics remembered as checked by discovery
+    private static final int MAX_DISCOVERY_CHECKED_TOPICS = 1000;
+
+    // max. time in milliseconds to wait for the acknowledgement of a QoS 1 message
+    private static final long PUBLISH_TIMEOUT = 30000;
+    // delay in seconds before messages which were not acknowledged are published again
+    private static final int PUBLISH_RETRY_DELAY = 5;
+    // max. time in milliseconds to wait for the answers of the mowers to a fleet command
+    private static final long FLEET_COMMAND_TIMEOUT = 30000;
+    private static final String FLEET_COMMAND_POLL = "poll";
+    // max. size in MB of an archive segment
+    private static final int MAX_ARCHIVE_SEGMENT_SIZE = 256;
 
     private WorxLandroidWebApiImpl apiHandler;
     private @Nullable MowerDiscoveryService discoveryService;
+    private @Nullable ScheduledFuture<?> discoveryJob;
 
     private @Nullable String awsMqttEndpoint;
-    private @Nullable AWSClient awsClient;
+    // MQTT connections, mowers are assigned by serial number
+    private List<MqttTransport> mqttTransports = Collections.emptyList();
+    // unacknowledged QoS 1 messages per connection, same order as mqttTransports
+    private List<InflightWindow> inflightWindows = Collections.emptyList();
+    private final PublishListener publishListener = new InflightListener();
+
+    private AWSIotQos commandQos = AWSIotQos.QOS1;
+    private AWSIotQos pollQos = AWSIotQos.QOS0;
+
+    // publish topic -> serial number of mower, to route queued messages
+    private final Map<String, String> publishTopicKeys = new ConcurrentHashMap<>();
+
+    // delayed OFFLINE status, cancelled if the connection recovers within the grace period
+    private @Nullable ScheduledFuture<?> offlineStatusJob;
+    private long offlineGracePeriod;
+
+    // outbound messages while AWS connection is not available
+    private AWSMessageQueue messageQueue = new AWSMessageQueue(20, 300000);
+    // serializes publishing of new and queued messages, keeps the order of the messages of a topic
+    private final Object publishLock = new Object();
+
+    // traffic statistics of all mowers
+    private final MqttMetrics metrics = new MqttMetrics();
+    private final UnknownCodeRecorder unknownCodeRecorder = new UnknownCodeRecorder();
+    // codes of the unknownCodes property, the property is only updated if a code was added
+    private String unknownCodes = "";
+    private @Nullable ScheduledFuture<?> metricsJob;
+
+    // raw payloads of received and published messages, if enabled
+    private @Nullable MessageArchive archive;
+
+    // subscriptions of all mowers
+    private final AWSSubscriptionRegistry subscriptionRegistry = new AWSSubscriptionRegistry(metrics);
+
+    // topics of mowers without subscription whose serial number was already checked by discovery, oldest first
+    private final Set<String> discoveryCheckedTopics = Collections
+            .newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<String, Boolean>() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_DISCOVERY_CHECKED_TOPICS;
+                }
+            }));
 
     /**
      * Defines a runnable for a discovery
@@ -79,6 +179,41 @@ public class WorxLandroidBridgeHandler extends BaseBridgeHandler implements AWSC
         }
     };
 
+    /**
+     * Discovers mowers without thing from their messages.
+     *
+     * The wildcard subscription receives a copy of every message of every mower on a single connection. Messages of
+     * mowers which are subscribed by their thing and of mowers which were already checked are skipped by a topic lookup
+     * before the payload is scanned. It is only subscribed with the local transport, the AWS broker is shared by all
+     * Worx customers.
+     */
+    private final AWSMessageCallback discoveryCallback = message -> {
+
+        if (message == null) {
+            return;
+        }
+
+        String topic = message.getTopic();
+        if (subscriptionRegistry.hasSubscription(topic) || discoveryCheckedTopics.contains(topic)) {
+            return;
+        }
+
+        // cfg/sn -> serial number
+        String serialNumber = PayloadScanner.scanString(message.getStringPayload(), "sn");
+        if (serialNumber == null) {
+            return;
+        }
+        discoveryCheckedTopics.add(topic);
+
+        MowerDiscoveryService discoveryService = this.discoveryService;
+        if (discoveryService == null || hasMowerThing(serialNumber)) {
+            return;
+        }
+
+        logger.debug("message of unknown mower {} received", serialNumber);
+        scheduler.execute(() -> discoveryService.discoverMower(serialNumber));
+    };
+
     /**
      * @param bridge
      * @param httpClient
@@ -90,19 +225,52 @@ public class WorxLandroidBridgeHandler extends BaseBridgeHandler implements AWSC
 
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
-        // if (CHANNEL_1.equals(channelUID.getId())) {
-        // if (command instanceof RefreshType) {
-        // // TODO: handle data refresh
-        // }
-        //
-        // // TODO: handle command
-        //
-        // // Note: if communication with thing fails for some reason,
-        // // indicate that by setting the status with detail information:
-        // // updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-        // // "Could not control device at IP address x.x.x.x");
-        //
-        // }
+
+        if (CHANNELNAME_ARCHIVE_REPLAY.equals(channelUID.getId()) && command instanceof StringType) {
+
+            // <segment> [speed]
+            String[] args = command.toString().trim().split("\\s+");
+            double speed = 1;
+            try {
+                if (args.length > 1) {
+                    speed = Double.parseDouble(args[1]);
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("invalid replay speed '{}'", args[1]);
+                return;
+            }
+
+            double replaySpeed = speed;
+            scheduler.execute(() -> {
+                try {
+                    replayArchive(args[0], replaySpeed);
+                } catch (IOException e) {
+                    logger.warn("replay of archive segment {} failed -> {}", args[0], e.getMessage());
+                }
+            });
+
+        } else if (CHANNELNAME_FLEET_COMMAND.equals(channelUID.getId()) && command instanceof StringType) {
+
+            // <command> [selector]
+            String[] args = command.toString().trim().split("\\s+", 2);
+            String selector = args.length > 1 ? args[1] : "*";
+            scheduler.execute(() -> {
+                try {
+                    // the result is published when all mowers answered or the timeout elapsed, no thread is blocked
+                    sendFleetCommand(args[0], selector, FLEET_COMMAND_TIMEOUT).thenAccept(result -> {
+                        logger.info("fleet command {}", result);
+                        if (logger.isDebugEnabled()) {
+                            for (MowerResult mowerResult : result.getResults()) {
+                                logger.debug("fleet command {}: {}", result.getCommand(), mowerResult);
+                            }
+                        }
+                        updateState(CHANNELNAME_FLEET_RESULT, new StringType(result.toString()));
+                    });
+                } catch (IllegalArgumentException e) {
+                    logger.warn("invalid fleet command '{}' -> {}", command, e.getMessage());
+                }
+            });
+        }
     }
 
     @Override
@@ -111,6 +279,16 @@ public class WorxLandroidBridgeHandler extends BaseBridgeHandler implements AWSC
         try {
 
             BridgeConfiguration config = getConfigAs(BridgeConfiguration.class);
+            messageQueue = new AWSMessageQueue(config.getCommandQueueSize(),
+                    TimeUnit.SECONDS.toMillis(config.getCommandQueueTtl()));
+            offlineGracePeriod = config.getOfflineGracePeriod();
+            subscriptionRegistry.setMoveDelay(TimeUnit.SECONDS.toMillis(offlineGracePeriod));
+            if (config.isArchive()) {
+                openArchive(config);
+            }
+            commandQos = AWSIotQos.valueOf(Math.min(1, Math.max(0, config.getCommandQos())));
+            pollQos = AWSIotQos.valueOf(Math.min(1, Math.max(0, config.getPollQos())));
+
             boolean connected = apiHandler.connect(config.getWebapiUsername(), config.getWebapiPassword());
 
             if (connected) {
@@ -121,36 +299,100 @@ public class WorxLandroidBridgeHandler extends BaseBridgeHandler implements AWSC
 
                 updateThing(editThing().withProperties(props).build());
 
-                logger.info("Start retrieving AWS certificate");
-                UsersCertificateResponse usersCertificateResponse = apiHandler.retrieveAwsCertificate();
+                SSLContext sslContext = null;
+                boolean local = BridgeConfiguration.TRANSPORT_LOCAL.equals(config.getTransport());
+                if (!local) {
+
+                    logger.info("Start retrieving AWS certificate");
+                    UsersCertificateResponse usersCertificateResponse = apiHandler.retrieveAwsCertificate();
+
+                    // TODO test this
+                    if (!usersCertificateResponse.isActive()) {
+                        logger.error("Connection blocked from Worx, please try again in 24h");
+                        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                                "Connection blocked from Worx, please try again in 24h!");
+                        return;
+                    }
 
-                // TODO test this
-                if (!usersCertificateResponse.isActive()) {
-                    logger.error("Connection blocked from Worx, please try again in 24h");
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                            "Connection blocked from Worx, please try again in 24h!");
-                    return;
+                    sslContext = AWSTlsContextCache.getSSLContext(usersCertificateResponse.getPkcs12(),
+                            EMPTY_PASSWORD);
                 }
 
-                byte[] p12 = Base64.getDecoder().decode(usersCertificateResponse.getPkcs12().getBytes());
-                KeyStore keystore = KeyStore.getInstance("PKCS12");
-                keystore.load(new ByteArrayInputStream(p12), EMPTY_PASSWORD.toCharArray());
-                logger.debug("AWS certificate loaded to keystore");
+                // one client (with own client id, callback executor and reconnect policy) per connection
+                List<MqttTransport> transports = new ArrayList<>();
+                List<InflightWindow> windows = new ArrayList<>();
+                for (int shard = 0; shard < Math.max(1, config.getConnections()); shard++) {
 
-                logger.debug("Try to connect to AWS...");
-                awsClient = new AWSClient(awsMqttEndpoint, "android-" + MqttAsyncClient.generateClientId(), keystore,
-                        EMPTY_PASSWORD, this);
-                awsClient.connect();
+                    ReconnectPolicy reconnectPolicy = new ReconnectPolicy(
+                            TimeUnit.SECONDS.toMillis(config.getReconnectInitialDelay()),
+                            TimeUnit.SECONDS.toMillis(config.getReconnectBaseDelay()),
+                            TimeUnit.SECONDS.toMillis(config.getReconnectMaxDelay()));
+                    ShardCallback shardCallback = new ShardCallback(shard);
 
-                // Trigger discovery of mowers
-                scheduler.submit(runnable);
+                    windows.add(new InflightWindow(config.getMaxInflight()));
+                    if (local || sslContext == null) {
+                        transports.add(new PahoClient(config.getLocalBrokerUri(),
+                                "openhab-" + MqttAsyncClient.generateClientId(), config.getLocalBrokerUsername(),
+                                config.getLocalBrokerPassword(), shardCallback, reconnectPolicy, scheduler));
+                    } else {
+                        transports.add(new AWSClient(awsMqttEndpoint, "android-" + MqttAsyncClient.generateClientId(),
+                                sslContext.getSocketFactory(), shardCallback, reconnectPolicy, scheduler));
+                    }
+                }
+
+                inflightWindows = windows;
+                mqttTransports = transports;
+                subscriptionRegistry.setClients(transports);
+                updateConnectionProperty();
+
+                logger.debug("Try to connect {} connection(s) to {}...", transports.size(),
+                        local ? config.getLocalBrokerUri() : "AWS");
+                AWSIotException connectException = null;
+                int connectedCount = 0;
+                for (MqttTransport transport : transports) {
+                    try {
+                        transport.connect();
+                        connectedCount++;
+                    } catch (AWSIotException e) {
+                        logger.warn("connect to {} failed, retry later -> {}", transport.getEndpoint(),
+                                e.getMessage());
+                        connectException = e;
+                    }
+                }
+                if (connectedCount == 0 && connectException != null) {
+                    throw connectException;
+                }
+
+                // the AWS broker is shared by all Worx customers, a wildcard subscription is rejected by its policy or
+                // receives the mowers of other accounts
+                boolean mqttDiscovery = config.isMqttDiscovery() && local;
+                if (config.isMqttDiscovery() && !local) {
+                    logger.warn("discovery from MQTT messages is only supported with transport '{}', ignored",
+                            BridgeConfiguration.TRANSPORT_LOCAL);
+                }
+
+                // Trigger discovery of mowers, repeated as reconciliation if mowers are discovered from messages
+                if (mqttDiscovery && config.getDiscoveryInterval() > 0) {
+                    discoveryJob = scheduler.scheduleWithFixedDelay(runnable, 0, config.getDiscoveryInterval(),
+                            TimeUnit.HOURS);
+                } else {
+                    scheduler.submit(runnable);
+                }
+
+                if (mqttDiscovery) {
+                    subscriptionRegistry.subscribe(DISCOVERY_KEY, DISCOVERY_TOPIC, discoveryCallback);
+                }
+
+                metricsJob = scheduler.scheduleWithFixedDelay(() -> {
+                    MetricsChannels.update(metrics.getTotal(), this::updateState);
+                    updateUnknownCodeProperty();
+                }, METRICS_INTERVAL, METRICS_INTERVAL, TimeUnit.SECONDS);
 
             } else {
                 updateStatus(ThingStatus.UNKNOWN, ThingStatusDetail.COMMUNICATION_ERROR,
                         "Error connecting to Worx Landroid WebApi!");
             }
-        } catch (WebApiException | KeyStoreException | NoSuchAlgorithmException | CertificateException | IOException
-                | AWSIotException e) {
+        } catch (WebApiException | GeneralSecurityException | IOException | AWSIotException e) {
             logger.error("Iniialization error - class: {}", e.getClass().getName());
             logger.error("Iniialization error - message: {}", e.getMessage());
             logger.error("Iniialization error - stacktrace: {}", e.getStackTrace().toString());
@@ -165,8 +407,24 @@ public class WorxLandroidBridgeHandler extends BaseBridgeHandler implements AWSC
 
         try {
 
-            if (awsClient != null) {
-                awsClient.disconnect();
+            cancelOfflineStatus();
+            if (metricsJob != null) {
+                metricsJob.cancel(true);
+            }
+            if (discoveryJob != null) {
+                discoveryJob.cancel(true);
+            }
+            subscriptionRegistry.unsubscribe(DISCOVERY_TOPIC, discoveryCallback);
+            discoveryCheckedTopics.clear();
+            messageQueue.clear();
+            unknownCodes = "";
+            closeArchive();
+            List<MqttTransport> transports = mqttTransports;
+            mqttTransports = Collections.emptyList();
+            subscriptionRegistry.setClients(mqttTransports);
+            publishTopicKeys.clear();
+            for (MqttTransport transport : transports) {
+                transport.disconnect();
             }
             super.dispose();
 
@@ -192,55 +450,595 @@ public class WorxLandroidBridgeHandler extends BaseBridgeHandler implements AWSC
     }
 
     /**
-     * @param awsTopic
-     * @throws AWSIotException
+     * @param serialNumber
+     * @return true if a mower thing with the given serial number exists
      */
-    @SuppressWarnings("null")
-    public void subcribeTopic(AWSTopic awsTopic) throws AWSIotException {
+    private boolean hasMowerThing(String serialNumber) {
+
+        for (Thing thing : getThing().getThings()) {
+            if (serialNumber.equals(thing.getUID().getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Subscribe callback to topic. If the topic cannot be subscribed now, it is subscribed on reconnect.
+     *
+     * @param serialNumber serial number of mower, selects the connection
+     * @param topic
+     * @param callback
+     */
+    public void subscribeTopic(String serialNumber, String topic, AWSMessageCallback callback) {
+
+        if (mqttTransports.isEmpty()) {
+            logger.warn("MqttClient is not initialized. Subscription to topic {} is pending", topic);
+        }
+
+        subscriptionRegistry.subscribe(serialNumber, topic, callback);
+        updateSubscriptionProperty();
+    }
 
-        if (awsClient == null) {
-            logger.error("MqttClient is not initialized. Cannot subsribe to topic -> {}", awsTopic.getTopic());
+    /**
+     * Unsubscribe callback from topic.
+     *
+     * @param topic
+     * @param callback
+     */
+    public void unsubscribeTopic(String topic, AWSMessageCallback callback) {
+
+        subscriptionRegistry.unsubscribe(topic, callback);
+        updateSubscriptionProperty();
+    }
+
+    /**
+     * @return topic -> number of subscribers of all active subscriptions
+     */
+    public Map<String, Integer> getActiveSubscriptions() {
+        return subscriptionRegistry.getActiveSubscriptions();
+    }
+
+    /**
+     * @return QoS of commands
+     */
+    public AWSIotQos getCommandQos() {
+        return commandQos;
+    }
+
+    /**
+     * @return QoS of status polls
+     */
+    public AWSIotQos getPollQos() {
+        return pollQos;
+    }
+
+    /**
+     * @return MQTT traffic statistics
+     */
+    public MqttMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return codes of the mowers which are not known by the binding
+     */
+    public UnknownCodeRecorder getUnknownCodeRecorder() {
+        return unknownCodeRecorder;
+    }
+
+    /**
+     * Report number of active subscriptions as bridge property.
+     */
+    private void updateSubscriptionProperty() {
+
+        Map<String, Integer> activeSubscriptions = subscriptionRegistry.getActiveSubscriptions();
+        logger.debug("active subscriptions -> {}", activeSubscriptions);
+        updateProperty(PROPERTY_ACTIVE_SUBSCRIPTIONS, String.valueOf(activeSubscriptions.size()));
+    }
+
+    /**
+     * Report codes of the mowers which are not known by the binding as bridge property, their counts are logged.
+     */
+    private void updateUnknownCodeProperty() {
+
+        String codes = unknownCodeRecorder.getCodes();
+        if (codes.isEmpty()) {
             return;
         }
+        logger.debug("unknown codes -> {}", unknownCodeRecorder);
+        if (!codes.equals(unknownCodes)) {
+            unknownCodes = codes;
+            updateProperty(PROPERTY_UNKNOWN_CODES, codes);
+        }
+    }
 
-        logger.debug("subsribe to topic -> {}", awsTopic.getTopic());
-        awsClient.subscribe(awsTopic);
+    /**
+     * Report number of connected connections as bridge property.
+     */
+    private void updateConnectionProperty() {
+        updateProperty(PROPERTY_CONNECTIONS,
+                String.format("%d/%d", subscriptionRegistry.getConnectedCount(), mqttTransports.size()));
     }
 
     /**
+     * Resubscribe all topics of the registry after reconnect, moves topics of lost connections.
+     */
+    private void resubscribeTopics() {
+        subscriptionRegistry.resubscribeAll();
+        updateSubscriptionProperty();
+    }
+
+    /**
+     * Publish message. If the AWS connection is not available the message is queued and published on reconnect, if
+     * too many QoS 1 messages are not yet acknowledged it is queued until the next acknowledgement.
+     *
+     * @param serialNumber serial number of mower, selects the connection
      * @param awsMessage
      * @throws AWSIotException
      */
-    @SuppressWarnings("null")
-    public void publishMessage(AWSMessage awsMessage) throws AWSIotException {
+    public void publishMessage(String serialNumber, AWSMessage awsMessage) throws AWSIotException {
 
-        if (awsClient == null) {
+        if (mqttTransports.isEmpty()) {
             logger.error("MqttClient is not initialized. Cannot publish message to topic -> {}", awsMessage.getTopic());
             return;
         }
 
-        logger.debug("publish topic -> {}", awsMessage.getTopic());
-        logger.debug("publish message -> {}", awsMessage.getStringPayload());
-        awsClient.publish(awsMessage);
+        publishTopicKeys.put(awsMessage.getTopic(), serialNumber);
+
+        MqttTransport transport = subscriptionRegistry.getClient(serialNumber);
+        if (transport == null) {
+            logger.debug("AWS connection not available, queue message for topic -> {}", awsMessage.getTopic());
+            messageQueue.offer(awsMessage);
+            return;
+        }
 
+        synchronized (publishLock) {
+
+            // messages of a topic are published in order, a newer message never overtakes a queued one
+            if (messageQueue.hasQueued(awsMessage.getTopic())) {
+                logger.debug("messages queued for topic {}, queue message", awsMessage.getTopic());
+                messageQueue.offer(awsMessage);
+                scheduler.execute(this::publishQueuedMessages);
+                return;
+            }
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("publish topic -> {}", awsMessage.getTopic());
+                logger.debug("publish message -> {}", awsMessage.getStringPayload());
+            }
+            try {
+                if (!publish(transport, awsMessage, System.currentTimeMillis())) {
+                    logger.debug("too many unacknowledged messages, queue message for topic -> {}",
+                            awsMessage.getTopic());
+                    messageQueue.offer(awsMessage);
+                }
+            } catch (AWSIotException e) {
+                logger.warn("publish failed, queue message for topic {} -> {}", awsMessage.getTopic(),
+                        e.getMessage());
+                messageQueue.offer(awsMessage);
+            }
+        }
     }
 
-    @Override
-    public void onAWSConnectionSuccess() {
-        logger.debug("AWS connection success");
-        updateStatus(ThingStatus.ONLINE);
+    /**
+     * Publish message on given connection. QoS 1 messages are only published if the in-flight window of the connection
+     * has a free slot, which is released by the acknowledgement of the broker.
+     *
+     * @param transport
+     * @param awsMessage
+     * @param queuedAt time the message was queued first, or now if it was never queued
+     * @return false if the message was not published because the in-flight window is full
+     * @throws AWSIotException
+     */
+    private boolean publish(MqttTransport transport, AWSMessage awsMessage, long queuedAt) throws AWSIotException {
+
+        int shard = mqttTransports.indexOf(transport);
+        if (awsMessage.getQos() == AWSIotQos.QOS1 && shard >= 0 && shard < inflightWindows.size()) {
+
+            InflightWindow window = inflightWindows.get(shard);
+            if (!window.tryAcquire()) {
+                return false;
+            }
+
+            InflightMessage inflightMessage = new InflightMessage(awsMessage, queuedAt, window, publishListener);
+            try {
+                transport.publish(inflightMessage, PUBLISH_TIMEOUT);
+            } catch (AWSIotException e) {
+                inflightMessage.abort();
+                throw e;
+            }
+        } else {
+            transport.publish(awsMessage);
+        }
+
+        messageQueue.recordPublished(awsMessage, queuedAt);
+        metrics.recordOutbound(awsMessage.getTopic(), awsMessage.getPayload().length);
+        MessageArchive archive = this.archive;
+        if (archive != null) {
+            archive.appendOutbound(publishTopicKeys.getOrDefault(awsMessage.getTopic(), ""), awsMessage.getTopic(),
+                    awsMessage.getPayload());
+        }
+        return true;
     }
 
-    @Override
-    public void onAWSConnectionFailure() {
-        logger.warn("AWS connection failure");
-        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, "AWS connection failure!");
+    /**
+     * @return directory of the message archive of this bridge
+     */
+    public Path getArchiveDirectory() {
+        return Paths.get(ConfigConstants.getUserDataFolder(), "worxlandroid", "archive", getThing().getUID().getId());
     }
 
-    @Override
-    public void onAWSConnectionClosed() {
-        logger.debug("AWS connection closed");
-        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, "AWS connection closed!");
+    private void openArchive(BridgeConfiguration config) {
+
+        closeArchive();
+        try {
+            // limited like the config parameter, a segment is mapped into memory at once
+            int segmentSize = Math.min(MAX_ARCHIVE_SEGMENT_SIZE, Math.max(1, config.getArchiveSegmentSize()));
+            MessageArchive archive = new MessageArchive(getArchiveDirectory(), segmentSize * 1024 * 1024,
+                    config.getArchiveSegments());
+            this.archive = archive;
+            subscriptionRegistry.setArchive(archive);
+            logger.info("archive MQTT messages in {}", archive.getDirectory());
+        } catch (IOException e) {
+            logger.warn("message archive could not be opened -> {}", e.getMessage());
+        }
+    }
+
+    private void closeArchive() {
+
+        MessageArchive archive = this.archive;
+        subscriptionRegistry.setArchive(null);
+        this.archive = null;
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    /**
+     * Send a command to several mowers at once. The payload is encoded only once and published to all selected mowers
+     * without waiting for the previous ones, so the fleet answers within about one round trip.
+     *
+     * @param commandName start, stop, home, zonetraining, lock, unlock or poll
+     * @param selector comma separated serial numbers, '*' as wildcard
+     * @param timeout max. time in milliseconds to wait for the answers
+     * @return completed with the result of every selected mower when all mowers answered or the timeout elapsed
+     * @throws IllegalArgumentException if the command is unknown
+     */
+    public CompletableFuture<FleetCommandResult> sendFleetCommand(String commandName, String selector,
+            long timeout) {
+
+        byte[] payload = null;
+        if (FLEET_COMMAND_POLL.equalsIgnoreCase(commandName)) {
+            payload = CommandEncoder.EMPTY_PAYLOAD;
+        } else {
+            for (WorxLandroidActionCodes actionCode : WorxLandroidActionCodes.values()) {
+                if (actionCode.getDescription().equalsIgnoreCase(commandName)) {
+                    payload = CommandEncoder.encodeCommand(actionCode);
+                    break;
+                }
+            }
+        }
+        if (payload == null) {
+            throw new IllegalArgumentException("unknown command '" + commandName + "'");
+        }
+
+        long start = System.currentTimeMillis();
+        Map<String, CompletableFuture<Long>> answers = new LinkedHashMap<>();
+        for (Thing thing : getThing().getThings()) {
+            ThingHandler handler = thing.getHandler();
+            String serialNumber = thing.getUID().getId();
+            if (handler instanceof WorxLandroidMowerHandler && matchesSelector(selector, serialNumber)) {
+                answers.put(serialNumber, ((WorxLandroidMowerHandler) handler).sendFleetCommand(this, payload));
+            }
+        }
+
+        // answers still outstanding after the timeout are completed as TIMEOUT
+        ScheduledFuture<?> timeoutJob = scheduler.schedule(() -> {
+            for (CompletableFuture<Long> answer : answers.values()) {
+                answer.completeExceptionally(new TimeoutException());
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<FleetCommandResult> fleetResult = new CompletableFuture<>();
+        CompletableFuture.allOf(answers.values().toArray(new CompletableFuture<?>[answers.size()]))
+                .whenComplete((ignored, e) -> {
+                    timeoutJob.cancel(false);
+                    long duration = System.currentTimeMillis() - start;
+                    fleetResult.complete(new FleetCommandResult(commandName.toLowerCase(), duration,
+                            getMowerResults(answers)));
+                });
+        return fleetResult;
+    }
+
+    /**
+     * @param answers serial number -> completed answer of the mower
+     * @return result of every mower
+     */
+    private List<MowerResult> getMowerResults(Map<String, CompletableFuture<Long>> answers) {
+
+        List<MowerResult> results = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<Long>> answer : answers.entrySet()) {
+            try {
+                results.add(new MowerResult(answer.getKey(), FleetCommandResult.State.ANSWERED,
+                        answer.getValue().join(), null));
+            } catch (RuntimeException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof TimeoutException) {
+                    results.add(new MowerResult(answer.getKey(), FleetCommandResult.State.TIMEOUT, -1, null));
+                } else {
+                    results.add(new MowerResult(answer.getKey(), FleetCommandResult.State.FAILED, -1,
+                            cause.getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @param selector comma separated serial numbers, '*' as wildcard, empty for all
+     * @param serialNumber
+     * @return true if the serial number matches one of the patterns
+     */
+    private boolean matchesSelector(String selector, String serialNumber) {
+
+        if (selector.trim().isEmpty()) {
+            return true;
+        }
+        for (String pattern : selector.split(",")) {
+            String regex = ("\\Q" + pattern.trim() + "\\E").replace("*", "\\E.*\\Q");
+            if (serialNumber.matches(regex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replay the received messages of an archive segment to the mowers, which process them like live messages.
+     *
+     * @param segmentName file name of the segment in the archive directory
+     * @param speed 1 = timing as recorded, 10 = ten times faster, 0 = as fast as possible
+     * @return number of replayed messages
+     * @throws IOException if the segment can not be read
+     */
+    public int replayArchive(String segmentName, double speed) throws IOException {
+
+        // only file names, no paths outside the archive directory
+        Path fileName = Paths.get(segmentName).getFileName();
+        if (fileName == null) {
+            throw new IOException("invalid segment name '" + segmentName + "'");
+        }
+
+        List<ArchivedMessage> messages = new ArrayList<>();
+        for (ArchivedMessage message : MessageArchive.read(getArchiveDirectory().resolve(fileName))) {
+            if (message.isInbound()) {
+                messages.add(message);
+            }
+        }
 
+        logger.info("replay {} messages of archive segment {} with speed {}", messages.size(), fileName, speed);
+        if (speed <= 0) {
+            for (ArchivedMessage message : messages) {
+                dispatchArchivedMessage(message);
+            }
+        } else if (!messages.isEmpty()) {
+            scheduler.execute(new ArchiveReplay(messages, speed));
+        }
+        return messages.size();
+    }
+
+    private void dispatchArchivedMessage(ArchivedMessage message) {
+
+        if (!subscriptionRegistry
+                .dispatch(new AWSIotMessage(message.getTopic(), AWSIotQos.QOS0, message.getPayload()))) {
+            logger.debug("replay: topic {} not subscribed", message.getTopic());
+        }
+    }
+
+    /**
+     * @return true if messages are queued for publishing on reconnect instead of being published
+     */
+    public boolean isQueueingMessages() {
+        return !mqttTransports.isEmpty() && !subscriptionRegistry.isConnected();
+    }
+
+    /**
+     * Publish messages queued while the AWS connection was not available.
+     */
+    private void publishQueuedMessages() {
+
+        synchronized (publishLock) {
+
+            List<AWSMessageQueue.QueuedMessage> messages = messageQueue.drain();
+            if (messages.isEmpty()) {
+                return;
+            }
+
+            // messages which are not published are queued again with their original queue time and position, so they
+            // still expire after the time to live. Once a message of a topic is queued again, the following messages
+            // of that topic are queued again too, so they are not published before it.
+            logger.debug("publish {} queued messages", messages.size());
+            Set<String> blockedTopics = new HashSet<>();
+            for (AWSMessageQueue.QueuedMessage queuedMessage : messages) {
+
+                AWSMessage awsMessage = queuedMessage.getMessage();
+                String serialNumber = publishTopicKeys.getOrDefault(awsMessage.getTopic(), awsMessage.getTopic());
+                MqttTransport transport = subscriptionRegistry.getClient(serialNumber);
+                if (transport == null || blockedTopics.contains(awsMessage.getTopic())) {
+                    // connection lost again or older message of topic not published, queue remaining messages
+                    messageQueue.requeue(awsMessage, queuedMessage.getQueuedAt());
+                    blockedTopics.add(awsMessage.getTopic());
+                    continue;
+                }
+
+                try {
+                    if (!publish(transport, awsMessage, queuedMessage.getQueuedAt())) {
+                        // window of connection is full, published after the next acknowledgement
+                        messageQueue.requeue(awsMessage, queuedMessage.getQueuedAt());
+                        blockedTopics.add(awsMessage.getTopic());
+                    }
+                } catch (AWSIotException e) {
+                    logger.warn("publish of queued message failed for topic {} -> {}", awsMessage.getTopic(),
+                            e.getMessage());
+                    messageQueue.requeue(awsMessage, queuedMessage.getQueuedAt());
+                    blockedTopics.add(awsMessage.getTopic());
+                }
+            }
+        }
+    }
+
+    /**
+     * Report OFFLINE status after the grace period, if the connection is not recovered until then. A short flap of the
+     * connection thus does not change the status of the bridge and all mowers.
+     *
+     * @param description
+     */
+    private synchronized void scheduleOfflineStatus(String description) {
+
+        if (getThing().getStatus() != ThingStatus.ONLINE || offlineGracePeriod <= 0) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, description);
+            return;
+        }
+
+        ScheduledFuture<?> job = offlineStatusJob;
+        if (job != null && !job.isDone()) {
+            return;
+        }
+
+        logger.debug("report OFFLINE in {}s if AWS connection is not recovered", offlineGracePeriod);
+        offlineStatusJob = scheduler.schedule(() -> {
+            if (!subscriptionRegistry.isConnected()) {
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, description);
+            }
+        }, offlineGracePeriod, TimeUnit.SECONDS);
+    }
+
+    private synchronized void cancelOfflineStatus() {
+
+        ScheduledFuture<?> job = offlineStatusJob;
+        if (job != null) {
+            job.cancel(false);
+            offlineStatusJob = null;
+        }
+    }
+
+    /**
+     * @param shard index of connection
+     */
+    private void onConnectionSuccess(int shard) {
+        logger.debug("AWS connection {} success", shard);
+        subscriptionRegistry.setConnected(shard, true);
+        updateConnectionProperty();
+        cancelOfflineStatus();
+        if (getThing().getStatus() != ThingStatus.ONLINE) {
+            updateStatus(ThingStatus.ONLINE);
+        }
+        scheduler.submit(() -> {
+            resubscribeTopics();
+            publishQueuedMessages();
+        });
+    }
+
+    /**
+     * @param shard index of connection
+     * @param description
+     */
+    private void onConnectionLost(int shard, String description) {
+        subscriptionRegistry.setConnected(shard, false);
+        updateConnectionProperty();
+        // move mowers of the lost connection to the remaining ones, unless it recovers within the grace period
+        scheduler.schedule(this::resubscribeTopics, offlineGracePeriod, TimeUnit.SECONDS);
+        if (!subscriptionRegistry.isConnected()) {
+            scheduleOfflineStatus(description);
+        }
+    }
+
+    /**
+     * Replays archived messages with their recorded timing, scaled by the speed.
+     */
+    private class ArchiveReplay implements Runnable {
+
+        private final List<ArchivedMessage> messages;
+        private final double speed;
+        private int index;
+
+        ArchiveReplay(List<ArchivedMessage> messages, double speed) {
+            this.messages = messages;
+            this.speed = speed;
+        }
+
+        @Override
+        public void run() {
+
+            ArchivedMessage message = messages.get(index++);
+            dispatchArchivedMessage(message);
+
+            if (index < messages.size() && !mqttTransports.isEmpty()) {
+                long delay = (long) ((messages.get(index).getTimestamp() - message.getTimestamp()) / speed);
+                scheduler.schedule(this, Math.max(0, delay), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Completion of QoS 1 messages
+     */
+    private class InflightListener implements PublishListener {
+
+        @Override
+        public void onPublishSuccess(AWSMessage message, long latency) {
+            metrics.recordPubackLatency(message.getTopic(), latency);
+            // a slot of the in-flight window is free
+            if (messageQueue.size() > 0) {
+                scheduler.execute(WorxLandroidBridgeHandler.this::publishQueuedMessages);
+            }
+        }
+
+        @Override
+        public void onPublishFailure(AWSMessage message, long queuedAt) {
+            metrics.recordPublishFailure(message.getTopic());
+            // a missing acknowledgement does not mean the message was lost, a command could be executed twice
+            if (!AWSMessageQueue.isIdempotent(message)) {
+                logger.warn("command for topic {} not acknowledged by broker, not published again -> {}",
+                        message.getTopic(), message.getStringPayload());
+                return;
+            }
+            logger.warn("message for topic {} not acknowledged by broker, publish again", message.getTopic());
+            messageQueue.requeue(message, queuedAt);
+            if (!mqttTransports.isEmpty()) {
+                scheduler.schedule(WorxLandroidBridgeHandler.this::publishQueuedMessages, PUBLISH_RETRY_DELAY,
+                        TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Connection events of a single connection
+     */
+    private class ShardCallback implements AWSClientCallback {
+
+        private final int shard;
+
+        ShardCallback(int shard) {
+            this.shard = shard;
+        }
+
+        @Override
+        public void onAWSConnectionSuccess() {
+            onConnectionSuccess(shard);
+        }
+
+        @Override
+        public void onAWSConnectionFailure() {
+            logger.warn("AWS connection {} failure", shard);
+            onConnectionLost(shard, "AWS connection failure!");
+        }
+
+        @Override
+        public void onAWSConnectionClosed() {
+            logger.debug("AWS connection {} closed", shard);
+            onConnectionLost(shard, "AWS connection closed!");
+        }
     }
 }
\ No newline at end of file
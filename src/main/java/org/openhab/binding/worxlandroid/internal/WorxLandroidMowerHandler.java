@@ -14,22 +14,24 @@ package org.openhab.binding.worxlandroid.internal;
 
 import static org.openhab.binding.worxlandroid.internal.WorxLandroidBindingConstants.*;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.library.types.DateTimeType;
-import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
-import org.eclipse.smarthome.core.library.types.StringType;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
@@ -41,6 +43,7 @@ import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.RefreshType;
+import org.openhab.binding.worxlandroid.internal.codes.Codes;
 import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidActionCodes;
 import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidDayCodes;
 import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidErrorCodes;
@@ -48,7 +51,14 @@ import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidStatusCodes;
 import org.openhab.binding.worxlandroid.internal.config.MowerConfiguration;
 import org.openhab.binding.worxlandroid.internal.mqtt.AWSMessage;
 import org.openhab.binding.worxlandroid.internal.mqtt.AWSMessageCallback;
-import org.openhab.binding.worxlandroid.internal.mqtt.AWSTopic;
+import org.openhab.binding.worxlandroid.internal.mqtt.CommandEncoder;
+import org.openhab.binding.worxlandroid.internal.mqtt.DecodeProfile;
+import org.openhab.binding.worxlandroid.internal.mqtt.MowerClock;
+import org.openhab.binding.worxlandroid.internal.mqtt.MowerState;
+import org.openhab.binding.worxlandroid.internal.mqtt.MowerStateDecoder;
+import org.openhab.binding.worxlandroid.internal.mqtt.MqttMetrics;
+import org.openhab.binding.worxlandroid.internal.mqtt.PayloadFingerprint;
+import org.openhab.binding.worxlandroid.internal.mqtt.PayloadScanner;
 import org.openhab.binding.worxlandroid.internal.vo.Mower;
 import org.openhab.binding.worxlandroid.internal.vo.ScheduledDay;
 import org.openhab.binding.worxlandroid.internal.webapi.WebApiException;
@@ -60,12 +70,7 @@ import org.slf4j.LoggerFactory;
 
 import com.amazonaws.services.iot.client.AWSIotException;
 import com.amazonaws.services.iot.client.AWSIotMessage;
-import com.amazonaws.services.iot.client.AWSIotQos;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonPrimitive;
 
 /**
  * The{@link WorxLandroidMowerHandler} is responsible for handling commands, which are
@@ -79,18 +84,92 @@ public class WorxLandroidMowerHandler extends BaseThingHandler implements AWSMes
 
     private final Logger logger = LoggerFactory.getLogger(WorxLandroidMowerHandler.class);
 
-    private Mower mower = new Mower("NOT_INITIALIZED");
+    private static final int NO_CODE = Integer.MIN_VALUE;
+    // sequence number of a message which was not received live (e.g. replay or Web API status)
+    private static final long NO_SEQUENCE = 0;
+    private static final String ALERT_PREFIX_STATUS = "STATUS_";
+    private static final String ALERT_PREFIX_ERROR = "ERROR_";
+
+    // immutable snapshot of the mower state, changes are swapped in by updateAndGet (copy-on-write)
+    private final AtomicReference<Mower> mower = new AtomicReference<>(new Mower("NOT_INITIALIZED"));
     private @Nullable WorxLandroidWebApiImpl apiHandler;
 
-    @SuppressWarnings("unused")
-    private @Nullable AWSTopic awsTopic;
     private String mqttCommandIn = "";
+    private String mqttCommandOut = "";
+
+    private final CommandEncoder commandEncoder = new CommandEncoder();
+
+    // decoded status message, reused for every message (guarded by processLock)
+    private final MowerStateDecoder stateDecoder = new MowerStateDecoder();
+    private final MowerState mowerState = new MowerState();
+
+    // channel UIDs, value mappings and command handlers of this thing
+    private final ChannelTable channels;
+    // channel updates of the table, optionally collected within stateBatchWindow
+    private final StateBatch stateBatch;
+    private final ChannelTable.Entry chStatusCode;
+    private final ChannelTable.Entry chStatusDescription;
+    private final ChannelTable.Entry chErrorCode;
+    private final ChannelTable.Entry chErrorDescription;
+    private final ChannelTable.Entry chLastZone;
+    private final ChannelTable.Entry chLock;
+    private final ChannelTable.Entry chRainDelay;
+    private final ChannelTable.Entry chDateTime;
+    private final ChannelTable.Entry chClockDrift;
+    private final ChannelTable.Entry chEnable;
+    private final ChannelTable.Entry chTimeExtension;
+    private final ChannelTable.Entry chMultiZoneEnable;
+    private final ChannelTable.Entry[] chScheduleStartHour = new ChannelTable.Entry[MowerState.DAY_COUNT];
+    private final ChannelTable.Entry[] chScheduleStartMinutes = new ChannelTable.Entry[MowerState.DAY_COUNT];
+    private final ChannelTable.Entry[] chScheduleDuration = new ChannelTable.Entry[MowerState.DAY_COUNT];
+    private final ChannelTable.Entry[] chScheduleEnable = new ChannelTable.Entry[MowerState.DAY_COUNT];
+    private final ChannelTable.Entry[] chScheduleEdgecut = new ChannelTable.Entry[MowerState.DAY_COUNT];
+    private final ChannelTable.Entry[] chZoneMeter = new ChannelTable.Entry[MowerState.ZONE_COUNT];
+    private final ChannelTable.Entry[] chAllocation = new ChannelTable.Entry[MowerState.ALLOCATION_COUNT];
+
+    // channels per payload section (MowerStateDecoder.SECTION_*), see decodeProfile
+    private final Map<Integer, List<ChannelTable.Entry>> sectionChannels = new LinkedHashMap<>();
+    // payload sections without linked channels are skipped by profile AUTO
+    private DecodeProfile decodeProfile = DecodeProfile.AUTO;
+
+    // unchanged channel values are published again after forceRefreshInterval
+    private long forceRefreshInterval = TimeUnit.SECONDS
+            .toMillis(new MowerConfiguration().getForceRefreshInterval());
+    private volatile long lastForcedRefresh;
+    // constant poll message, reused for every poll
+    private @Nullable AWSMessage pollMessage;
 
     @SuppressWarnings("unused")
     private @Nullable ScheduledFuture<?> refreshStatusJob;
     @SuppressWarnings("unused")
     private @Nullable ScheduledFuture<?> pollingJob;
 
+    // mower timestamp (cfg/dt + cfg/tm) and clock drift
+    private final MowerClock clock = new MowerClock();
+
+    // latest received message not processed yet, older ones are superseded
+    private final AtomicReference<@Nullable ReceivedMessage> pendingMessage = new AtomicReference<>();
+    private final Object processLock = new Object();
+
+    // fingerprint of the last received payload, repeats are not processed
+    private volatile long lastFingerprint;
+    private volatile boolean hasFingerprint;
+
+    // publish time of the last command or poll without answer, 0 if none
+    private volatile long commandSentAt;
+    // answer of a fleet command, completed by the message answering the command
+    private final AtomicReference<@Nullable PendingAnswer> pendingAnswer = new AtomicReference<>();
+
+    // sequence number of the received messages, status and error of older messages are not published
+    private final AtomicLong messageSequence = new AtomicLong();
+    // sequence number of the message whose status and error were published last (guarded by criticalLock)
+    private long criticalSequence = NO_SEQUENCE;
+    private final Object criticalLock = new Object();
+
+    // alerts of the current critical state, null if not critical
+    private @Nullable String statusAlert;
+    private @Nullable String errorAlert;
+
     private boolean restoreZoneMeter = false;
     private int[] zoneMeterRestoreValues = {};
 
@@ -106,20 +185,22 @@ public class WorxLandroidMowerHandler extends BaseThingHandler implements AWSMes
                 if (isBridgeOnline() && apiHandler != null) {
 
                     ProductItemsResponse productItemsResponse = apiHandler.retrieveUserDevices();
-                    JsonObject mowerDataJson = productItemsResponse.getMowerDataById(mower.getSerialNumber());
+                    JsonObject mowerDataJson = productItemsResponse.getMowerDataById(mower.get().getSerialNumber());
 
                     boolean online = mowerDataJson != null && mowerDataJson.get("online").getAsBoolean();
-                    mower.setOnline(online);
+                    mower.updateAndGet(m -> m.withOnline(online));
                     updateState(CHANNELNAME_ONLINE, OnOffType.from(online));
                     DateTimeType d = new DateTimeType();
                     updateState(CHANNELNAME_LAST_UPDATE_ONLINE_STATUS, new DateTimeType());
                     updateStatus(online ? ThingStatus.ONLINE : ThingStatus.OFFLINE);
+
+                    updateMetrics();
                 }
             } catch (IllegalStateException e) {
                 logger.debug("\"RefreshStatusRunnable {}: Refreshing Thing failed, handler might be OFFLINE",
-                        mower.getSerialNumber());
+                        mower.get().getSerialNumber());
             } catch (Exception e) {
-                logger.error("RefreshStatusRunnable {}: Unknown error", mower.getSerialNumber(), e);
+                logger.error("RefreshStatusRunnable {}: Unknown error", mower.get().getSerialNumber(), e);
             }
         }
     };
@@ -137,14 +218,14 @@ public class WorxLandroidMowerHandler extends BaseThingHandler implements AWSMes
                 if (isBridgeOnline()) {
 
                     WorxLandroidBridgeHandler bridgeHandler = getWorxLandroidBridgeHandler();
-                    if (bridgeHandler != null) {
-
-                        AWSMessage message = new AWSMessage(mqttCommandIn, AWSIotQos.QOS0, AWSMessage.EMPTY_PAYLOAD);
-                        bridgeHandler.publishMessage(message);
+                    AWSMessage message = pollMessage;
+                    if (bridgeHandler != null && message != null) {
+                        commandSentAt = System.currentTimeMillis();
+                        bridgeHandler.publishMessage(mower.get().getSerialNumber(), message);
                     }
                 }
             } catch (AWSIotException e) {
-                logger.error("PollingRunnable {}: {}", e.getLocalizedMessage(), mower.getSerialNumber());
+                logger.error("PollingRunnable {}: {}", e.getLocalizedMessage(), mower.get().getSerialNumber());
             }
         }
     };
@@ -154,6 +235,321 @@ public class WorxLandroidMowerHandler extends BaseThingHandler implements AWSMes
      */
     public WorxLandroidMowerHandler(Thing thing) {
         super(thing);
+
+        stateBatch = new StateBatch(this::updateState, scheduler);
+        channels = new ChannelTable(thing.getUID(), stateBatch);
+        chStatusCode = channels.channel(CHANNELNAME_STATUS_CODE);
+        chStatusDescription = channels.channel(CHANNELNAME_STATUS_DESCRIPTION);
+        chErrorCode = channels.channel(CHANNELNAME_ERROR_CODE);
+        chErrorDescription = channels.channel(CHANNELNAME_ERROR_DESCRIPTION);
+        // critical states are not delayed by the batch window
+        stateBatch.addImmediate(chStatusCode.getChannelUID());
+        stateBatch.addImmediate(chStatusDescription.getChannelUID());
+        stateBatch.addImmediate(chErrorCode.getChannelUID());
+        stateBatch.addImmediate(chErrorDescription.getChannelUID());
+        chLastZone = channels.channel(CHANNELNAME_LAST_ZONE);
+        chLock = channels.channel(CHANNELNAME_LOCK);
+        chRainDelay = channels.channel(CHANNELNAME_RAIN_DELAY);
+        chDateTime = channels.channel(CHANNELNAME_DATETIME);
+        chClockDrift = channels.channel(CHANNELNAME_CLOCK_DRIFT);
+        chEnable = channels.channel(CHANNELNAME_ENABLE);
+        chTimeExtension = channels.channel(CHANNELNAME_SC_TIME_EXTENSION);
+        chMultiZoneEnable = channels.channel(CHANNELNAME_MULTIZONE_ENABLE);
+        for (WorxLandroidDayCodes dayCode : WorxLandroidDayCodes.values()) {
+            String group = "cfgSc" + dayCode.getDescription() + "#";
+            chScheduleStartHour[dayCode.getCode()] = channels.channel(group + "scheduleStartHour");
+            chScheduleStartMinutes[dayCode.getCode()] = channels.channel(group + "scheduleStartMinutes");
+            chScheduleDuration[dayCode.getCode()] = channels.channel(group + "scheduleDuration");
+            chScheduleEnable[dayCode.getCode()] = channels.channel(group + "enable");
+            chScheduleEdgecut[dayCode.getCode()] = channels.channel(group + "scheduleEdgecut");
+        }
+        for (int zoneIndex = 0; zoneIndex < MowerState.ZONE_COUNT; zoneIndex++) {
+            chZoneMeter[zoneIndex] = channels.channel(String.format("cfgMultiZones#zone%dMeter", zoneIndex + 1));
+        }
+        for (int allocationIndex = 0; allocationIndex < MowerState.ALLOCATION_COUNT; allocationIndex++) {
+            chAllocation[allocationIndex] = channels.channel(CHANNELNAME_PREFIX_ALLOCATION + allocationIndex);
+        }
+
+        mapValues();
+        mapCommands();
+        mapSections();
+    }
+
+    /**
+     * Channels of the payload sections which are skipped by decode profile AUTO if none of their channels is linked.
+     */
+    private void mapSections() {
+
+        // dat/dmp
+        sectionChannels.put(MowerStateDecoder.SECTION_ORIENTATION, Arrays.asList(channels.channel(CHANNELNAME_PITCH),
+                channels.channel(CHANNELNAME_ROLL), channels.channel(CHANNELNAME_YAW)));
+        // dat/st
+        sectionChannels.put(MowerStateDecoder.SECTION_STATISTICS,
+                Arrays.asList(channels.channel(CHANNELNAME_TOTAL_BLADE_TIME),
+                        channels.channel(CHANNELNAME_TOTAL_DISTANCE), channels.channel(CHANNELNAME_TOTAL_TIME)));
+        // cfg/sc, also needed to send the complete schedule with a command
+        List<ChannelTable.Entry> schedule = new ArrayList<>(Arrays.asList(chEnable, chTimeExtension));
+        schedule.addAll(Arrays.asList(chScheduleStartHour));
+        schedule.addAll(Arrays.asList(chScheduleStartMinutes));
+        schedule.addAll(Arrays.asList(chScheduleDuration));
+        schedule.addAll(Arrays.asList(chScheduleEnable));
+        schedule.addAll(Arrays.asList(chScheduleEdgecut));
+        sectionChannels.put(MowerStateDecoder.SECTION_SCHEDULE, schedule);
+        // cfg/mz, also needed to start a zone
+        List<ChannelTable.Entry> zoneMeters = new ArrayList<>(Arrays.asList(chMultiZoneEnable, chLastZone));
+        zoneMeters.addAll(Arrays.asList(chZoneMeter));
+        sectionChannels.put(MowerStateDecoder.SECTION_ZONE_METERS, zoneMeters);
+        // cfg/mzv, also needed to map dat/lz to a zone
+        List<ChannelTable.Entry> allocations = new ArrayList<>(Arrays.asList(chLastZone));
+        allocations.addAll(Arrays.asList(chAllocation));
+        sectionChannels.put(MowerStateDecoder.SECTION_ZONE_ALLOCATIONS, allocations);
+    }
+
+    /**
+     * Set the optional features of the mower, the channels of unsupported features are removed.
+     *
+     * @param lockSupported
+     * @param rainDelaySupported
+     * @param multiZoneSupported
+     */
+    void updateSupportedFeatures(boolean lockSupported, boolean rainDelaySupported, boolean multiZoneSupported) {
+
+        mower.updateAndGet(m -> m.withLockSupported(lockSupported).withRainDelaySupported(rainDelaySupported)
+                .withMultiZoneSupported(multiZoneSupported));
+
+        List<ChannelTable.Entry> unsupported = new ArrayList<>();
+        if (!lockSupported) {
+            unsupported.add(chLock);
+        }
+        if (!rainDelaySupported) {
+            unsupported.add(chRainDelay);
+        }
+        if (!multiZoneSupported) {
+            // lastZone, zone meter and allocation channels
+            unsupported.add(chLastZone);
+            unsupported.addAll(Arrays.asList(chZoneMeter));
+            unsupported.addAll(Arrays.asList(chAllocation));
+        }
+        removeChannels(unsupported);
+    }
+
+    /**
+     * Remove the given channels from the thing. The thing is only rewritten if it still contains one of them, so
+     * channels are removed once when the mower is added and re-initializations don't rewrite the channel list.
+     *
+     * @param entries channels of unsupported features
+     */
+    private void removeChannels(List<ChannelTable.Entry> entries) {
+
+        @Nullable
+        ThingBuilder thingBuilder = null;
+        for (ChannelTable.Entry entry : entries) {
+            ChannelUID channelUID = entry.getChannelUID();
+            if (getThing().getChannel(channelUID.getId()) != null) {
+                if (thingBuilder == null) {
+                    thingBuilder = editThing();
+                }
+                thingBuilder.withoutChannel(channelUID);
+            }
+        }
+
+        if (thingBuilder != null) {
+            logger.debug("mower {}: remove channels of unsupported features", mower.get().getSerialNumber());
+            updateThing(thingBuilder.build());
+        }
+    }
+
+    /**
+     * Skip the payload sections not needed by the decode profile.
+     */
+    private void updateDecodeProfile() {
+
+        int skipped = 0;
+        if (decodeProfile == DecodeProfile.MINIMAL) {
+            skipped = MowerStateDecoder.ALL_SECTIONS;
+        } else if (decodeProfile == DecodeProfile.AUTO) {
+            for (Map.Entry<Integer, List<ChannelTable.Entry>> section : sectionChannels.entrySet()) {
+                if (!isAnyLinked(section.getValue())) {
+                    skipped |= section.getKey();
+                }
+            }
+        }
+
+        int previous = stateDecoder.getSkippedSections();
+        if (skipped != previous) {
+            stateDecoder.setSkippedSections(skipped);
+            if ((previous & ~skipped) != 0) {
+                // sections are decoded again, process the next message even if it repeats the previous one
+                hasFingerprint = false;
+            }
+            logger.debug("mower {} decode profile {} skips sections {}", mower.get().getSerialNumber(), decodeProfile,
+                    Integer.toBinaryString(skipped));
+        }
+    }
+
+    /**
+     * @param entries
+     * @return true if at least one of the channels is linked
+     */
+    private boolean isAnyLinked(List<ChannelTable.Entry> entries) {
+        for (ChannelTable.Entry entry : entries) {
+            if (isLinked(entry.getChannelUID())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void channelLinked(ChannelUID channelUID) {
+        updateDecodeProfile();
+        // sends REFRESH, which publishes the last value of the channel
+        super.channelLinked(channelUID);
+    }
+
+    @Override
+    public void channelUnlinked(ChannelUID channelUID) {
+        super.channelUnlinked(channelUID);
+        updateDecodeProfile();
+    }
+
+    /**
+     * Values of a status message which are published to their channel without further processing.
+     */
+    private void mapValues() {
+
+        // cfg/id -> id
+        channels.mapNumber(MowerState.ID, CHANNELNAME_ID, MowerState::getId);
+        // cfg/lg -> language
+        channels.mapString(MowerState.LANGUAGE, CHANNELNAME_LANGUAGE, MowerState::getLanguage);
+        // cfg/cmd -> command
+        channels.mapNumber(MowerState.COMMAND, CHANNELNAME_COMMAND, MowerState::getCommand);
+        // cfg/sn -> serialNumber
+        channels.mapString(MowerState.SERIAL_NUMBER, CHANNELNAME_SERIAL_NUMBER, MowerState::getSerialNumber);
+
+        // dat/mac -> macAddress
+        channels.mapString(MowerState.MAC_ADDRESS, CHANNELNAME_MAC_ADRESS, MowerState::getMacAddress);
+        // dat/fw -> firmware
+        channels.mapDecimal(MowerState.FIRMWARE, CHANNELNAME_FIRMWARE, MowerState::getFirmware);
+        // dat/bt/t -> batteryTemperature
+        channels.mapDecimal(MowerState.BATTERY_TEMPERATURE, CHANNELNAME_BATTERY_TEMPERATURE,
+                MowerState::getBatteryTemperature);
+        // dat/bt/v -> batteryVoltage
+        channels.mapDecimal(MowerState.BATTERY_VOLTAGE, CHANNELNAME_BATTERY_VOLTAGE, MowerState::getBatteryVoltage);
+        // dat/bt/p -> batteryLevel
+        channels.mapNumber(MowerState.BATTERY_LEVEL, CHANNELNAME_BATTERY_LEVEL, MowerState::getBatteryLevel);
+        // dat/bt/nr -> batteryChargeCycle
+        channels.mapDecimal(MowerState.BATTERY_CHARGE_CYCLE, CHANNELNAME_BATTERY_CHARGE_CYCLE,
+                MowerState::getBatteryChargeCycle);
+        // dat/bt/c -> batteryCharging - 1=charging
+        channels.mapSwitch(MowerState.BATTERY_CHARGING, CHANNELNAME_BATTERY_CHARGING, MowerState::isBatteryCharging);
+        // dat/dmp.[0] -> pitch, dat/dmp.[1] -> roll, dat/dmp.[2] -> yaw
+        channels.mapDecimal(MowerState.PITCH, CHANNELNAME_PITCH, MowerState::getPitch);
+        channels.mapDecimal(MowerState.ROLL, CHANNELNAME_ROLL, MowerState::getRoll);
+        channels.mapDecimal(MowerState.YAW, CHANNELNAME_YAW, MowerState::getYaw);
+        // dat/st/b -> totalBladeTime
+        channels.mapNumber(MowerState.TOTAL_BLADE_TIME, CHANNELNAME_TOTAL_BLADE_TIME, MowerState::getTotalBladeTime);
+        // dat/st/d -> totalDistance
+        channels.mapNumber(MowerState.TOTAL_DISTANCE, CHANNELNAME_TOTAL_DISTANCE, MowerState::getTotalDistance);
+        // dat/st/wt -> totalTime
+        channels.mapNumber(MowerState.TOTAL_TIME, CHANNELNAME_TOTAL_TIME, MowerState::getTotalTime);
+        // dat/rsi -> wifiQuality
+        channels.mapNumber(MowerState.WIFI_QUALITY, CHANNELNAME_WIFI_QUALITY, MowerState::getWifiQuality);
+    }
+
+    /**
+     * Command handlers of the channels.
+     */
+    private void mapCommands() {
+
+        // start action
+        channels.onCommand(CHANNELNAME_ACTION, command -> {
+            WorxLandroidActionCodes actionCode = WorxLandroidActionCodes.valueOf(command.toString());
+            logger.debug("{}", actionCode.toString());
+            sendCommand(CommandEncoder.encodeCommand(actionCode));
+        });
+
+        // poll
+        channels.onCommand(CHANNELNAME_POLL, command -> {
+            updateState(CHANNELNAME_POLL, OnOffType.OFF);
+            sendCommand(CommandEncoder.EMPTY_PAYLOAD);
+        });
+
+        // update rainDelay
+        channels.onCommand(CHANNELNAME_RAIN_DELAY,
+                command -> sendCommand(commandEncoder.encodeRainDelay(Integer.parseInt(command.toString()))));
+
+        // lock/unlock
+        channels.onCommand(CHANNELNAME_LOCK, command -> {
+            WorxLandroidActionCodes lockCode = OnOffType.ON.equals(command) ? WorxLandroidActionCodes.LOCK
+                    : WorxLandroidActionCodes.UNLOCK;
+            logger.debug("{}", lockCode.toString());
+            sendCommand(CommandEncoder.encodeCommand(lockCode));
+        });
+
+        // multizone enable or multizone meters (mz)
+        channels.onCommand(CHANNELNAME_MULTIZONE_ENABLE, command -> {
+            boolean enable = OnOffType.ON.equals(command);
+            sendZoneMeter(mower.updateAndGet(m -> m.withMultiZoneEnable(enable)));
+        });
+        for (int zoneIndex = 0; zoneIndex < MowerState.ZONE_COUNT; zoneIndex++) {
+            int zone = zoneIndex;
+            channels.onCommand(chZoneMeter[zoneIndex].getChannelUID().getId(), command -> {
+                int meter = Integer.parseInt(command.toString());
+                sendZoneMeter(mower.updateAndGet(m -> m.withZoneMeter(zone, meter)));
+            });
+        }
+
+        // multizone allocation (mzv)
+        for (int allocationIndex = 0; allocationIndex < MowerState.ALLOCATION_COUNT; allocationIndex++) {
+            int allocation = allocationIndex;
+            channels.onCommand(chAllocation[allocationIndex].getChannelUID().getId(), command -> {
+                int zone = Integer.parseInt(command.toString());
+                if (stateDecoder.skips(MowerStateDecoder.SECTION_ZONE_ALLOCATIONS)) {
+                    logger.warn("mower {}: allocations are not decoded (decodeProfile), command ignored",
+                            mower.get().getSerialNumber());
+                    return;
+                }
+                Mower updated = mower.updateAndGet(m -> m.withAllocation(allocation, zone));
+                sendCommand(commandEncoder.encodeAllocations(updated));
+            });
+        }
+
+        // start zone
+        channels.onCommand(CHANNELNAME_LAST_ZONE, this::startZone);
+
+        // enable mowing, time extension and schedule (sc)
+        channels.onCommand(CHANNELNAME_ENABLE, command -> {
+            boolean enable = OnOffType.ON.equals(command);
+            sendSchedule(mower.updateAndGet(m -> m.withEnable(enable)));
+        });
+        channels.onCommand(CHANNELNAME_SC_TIME_EXTENSION, command -> {
+            int timeExtension = Integer.parseInt(command.toString());
+            sendSchedule(mower.updateAndGet(m -> m.withTimeExtension(timeExtension)));
+        });
+        for (WorxLandroidDayCodes dayCode : WorxLandroidDayCodes.values()) {
+            int day = dayCode.getCode();
+            channels.onCommand(chScheduleEnable[day].getChannelUID().getId(), command -> {
+                boolean enable = OnOffType.ON.equals(command);
+                sendSchedule(updateScheduledDay(dayCode, scheduledDay -> scheduledDay.withEnable(enable)));
+            });
+            channels.onCommand(chScheduleStartHour[day].getChannelUID().getId(), command -> {
+                int hour = Integer.parseInt(command.toString());
+                sendSchedule(updateScheduledDay(dayCode, scheduledDay -> scheduledDay.withHours(hour)));
+            });
+            channels.onCommand(chScheduleStartMinutes[day].getChannelUID().getId(), command -> {
+                int minutes = Integer.parseInt(command.toString());
+                sendSchedule(updateScheduledDay(dayCode, scheduledDay -> scheduledDay.withMinutes(minutes)));
+            });
+            channels.onCommand(chScheduleDuration[day].getChannelUID().getId(), command -> {
+                int duration = Integer.parseInt(command.toString());
+                sendSchedule(updateScheduledDay(dayCode, scheduledDay -> scheduledDay.withDuration(duration)));
+            });
+            channels.onCommand(chScheduleEdgecut[day].getChannelUID().getId(), command -> {
+                boolean edgecut = OnOffType.ON.equals(command);
+                sendSchedule(updateScheduledDay(dayCode, scheduledDay -> scheduledDay.withEdgecut(edgecut)));
+            });
+        }
     }
 
     /**
@@ -168,9 +564,16 @@ public class WorxLandroidMowerHandler extends BaseThingHandler implements AWSMes
     @Override
     public void initialize() {
 
-        mower = new Mower(getThing().getUID().getId());
+        mower.set(new Mower(getThing().getUID().getId()));
+
+        forceRefreshInterval = TimeUnit.SECONDS
+                .toMillis(getConfigAs(MowerConfiguration.class).getForceRefreshInterval());
+        stateBatch.setWindow(getConfigAs(MowerConfiguration.class).getStateBatchWindow());
+        decodeProfile = DecodeProfile.fromConfig(getConfigAs(MowerConfiguration.class).getDecodeProfile());
+        updateDecodeProfile();
+        channels.invalidateAll();
 
-        logger.debug("Initializing WorxLandroidMowerHandler for serialNumber '{}'", mower.getSerialNumber());
+        logger.debug("Initializing WorxLandroidMowerHandler for serialNumber '{}'", mower.get().getSerialNumber());
 
         if (isBridgeOnline()) {
 
@@ -183,63 +586,37 @@ public class WorxLandroidMowerHandler extends BaseThingHandler implements AWSMes
                 try {
 
                     ProductItemsResponse productItemsResponse = apiHandler.retrieveUserDevices();
-                    JsonObject mowerDataJson = productItemsResponse.getMowerDataById(mower.getSerialNumber());
+                    JsonObject mowerDataJson = productItemsResponse.getMowerDataById(mower.get().getSerialNumber());
 
                     if (mowerDataJson != null) {
 
-                        ThingBuilder thingBuilder = editThing();
+                        // set mower properties, the thing is only updated if a property changed
+                        Map<String, String> props = productItemsResponse
+                                .getDataAsPropertyMap(mower.get().getSerialNumber());
+                        updateProperties(props);
 
-                        // set mower properties
-                        Map<String, String> props = productItemsResponse.getDataAsPropertyMap(mower.getSerialNumber());
-                        thingBuilder.withProperties(props);
+                        clock.setZone(MowerClock.resolveZone(props.get("time_zone")));
 
                         mqttCommandIn = props.get("command_in");
-                        String mqttCommandOut = props.get("command_out");
+                        mqttCommandOut = props.get("command_out");
+                        pollMessage = new AWSMessage(mqttCommandIn, bridgeHandler.getPollQos(),
+                                CommandEncoder.EMPTY_PAYLOAD);
 
-                        // lock channel only when supported
-                        boolean lockSupported = Boolean.parseBoolean(props.get("lock"));
-                        mower.setLockSupported(lockSupported);
-                        if (!lockSupported) {
-                            thingBuilder.withoutChannel(new ChannelUID(thing.getUID(), CHANNELNAME_LOCK));
-                        }
-
-                        // rainDelay channel only when supported
-                        boolean rainDelaySupported = Boolean.parseBoolean(props.get("rain_delay"));
-                        mower.setRainDelaySupported(rainDelaySupported);
-                        if (!rainDelaySupported) {
-                            thingBuilder.withoutChannel(new ChannelUID(thing.getUID(), CHANNELNAME_RAIN_DELAY));
-                        }
-
-                        // multizone channels only when supported
-                        boolean multiZoneSupported = Boolean.parseBoolean(props.get("multi_zone"));
-                        mower.setMultiZoneSupported(multiZoneSupported);
-                        if (!multiZoneSupported) {
-                            // remove lastZome channel
-                            thingBuilder.withoutChannel(new ChannelUID(thing.getUID(), CHANNELNAME_LAST_ZONE));
-                            // remove zone meter channels
-                            for (int zoneIndex = 0; zoneIndex < 4; zoneIndex++) {
-                                String channelNameZoneMeter = String.format("cfgMultiZones#zone%dMeter", zoneIndex + 1);
-                                thingBuilder.withoutChannel(new ChannelUID(thing.getUID(), channelNameZoneMeter));
-                            }
-                            // remove allocation channels
-                            for (int allocationIndex = 0; allocationIndex < 10; allocationIndex++) {
-                                String channelNameAllocation = CHANNELNAME_PREFIX_ALLOCATION + allocationIndex;
-                                thingBuilder.withoutChannel(new ChannelUID(thing.getUID(), channelNameAllocation));
-                            }
-                        }
-
-                        updateThing(thingBuilder.build());
+                        // channels only when supported
+                        updateSupportedFeatures(Boolean.parseBoolean(props.get("lock")),
+                                Boolean.parseBoolean(props.get("rain_delay")),
+                                Boolean.parseBoolean(props.get("multi_zone")));
 
                         ProductItemsStatusResponse productItemsStatusResponse = apiHandler
-                                .retrieveDeviceStatus(mower.getSerialNumber());
-                        processStatusMessage(productItemsStatusResponse.getJsonResponseAsJsonObject());
+                                .retrieveDeviceStatus(mower.get().getSerialNumber());
+                        synchronized (processLock) {
+                            processPayload(productItemsStatusResponse.toString());
+                        }
 
                         // handle AWS
-                        AWSTopic awsTopic = new AWSTopic(mqttCommandOut, AWSIotQos.QOS0, this);
-                        bridgeHandler.subcribeTopic(awsTopic);
+                        bridgeHandler.subscribeTopic(mower.get().getSerialNumber(), mqttCommandOut, this);
 
-                        AWSMessage message = new AWSMessage(mqttCommandIn, AWSIotQos.QOS0, AWSMessage.EMPTY_PAYLOAD);
-                        bridgeHandler.publishMessage(message);
+                        sendCommand(CommandEncoder.EMPTY_PAYLOAD);
 
                         updateStatus(
                                 mowerDataJson.get("online").getAsBoolean() ? ThingStatus.ONLINE : ThingStatus.OFFLINE);
@@ -253,8 +630,8 @@ public class WorxLandroidMowerHandler extends BaseThingHandler implements AWSMes
                     }
 
                 } catch (WebApiException | AWSIotException e) {
-                    logger.error("initialize mower: id {} - {}::{}", mower.getSerialNumber(), getThing().getLabel(),
-                            getThing().getUID());
+                    logger.error("initialize mower: id {} - {}::{}", mower.get().getSerialNumber(),
+                            getThing().getLabel(), getThing().getUID());
                 }
 
                 updateStatus(ThingStatus.ONLINE);
@@ -312,13 +689,20 @@ public class WorxLandroidMowerHandler extends BaseThingHandler implements AWSMes
         if (pollingJob != null) {
             pollingJob.cancel(true);
         }
+
+        stateBatch.flush();
+
+        WorxLandroidBridgeHandler bridgeHandler = getWorxLandroidBridgeHandler();
+        if (bridgeHandler != null && !mqttCommandOut.isEmpty()) {
+            bridgeHandler.unsubscribeTopic(mqttCommandOut, this);
+        }
     }
 
     @Override
     public void bridgeStatusChanged(ThingStatusInfo bridgeStatusInfo) {
 
         if (ThingStatus.OFFLINE.equals(bridgeStatusInfo.getStatus())) {
-            mower.setOnline(false);
+            mower.updateAndGet(m -> m.withOnline(false));
         }
         super.bridgeStatusChanged(bridgeStatusInfo);
     }
@@ -326,15 +710,19 @@ public class WorxLandroidMowerHandler extends BaseThingHandler implements AWSMes
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
 
+        ChannelTable.Entry entry = channels.get(channelUID.getId());
+        if (entry != null) {
+            // publish the next value even if unchanged, the command could be rejected by the mower
+            channels.invalidate(entry);
+        }
+
         try {
 
             if (command instanceof RefreshType) {
-                return;
-            }
-
-            if (getThing().getStatus() != ThingStatus.ONLINE) {
-                logger.error("handleCommand mower: {} ({}) is offline!", getThing().getLabel(),
-                        mower.getSerialNumber());
+                // unchanged values are not published again by the next message
+                if (entry != null) {
+                    channels.refresh(entry);
+                }
                 return;
             }
 
@@ -344,369 +732,447 @@ public class WorxLandroidMowerHandler extends BaseThingHandler implements AWSMes
                 return;
             }
 
-            // return;
-            // channel: multizone enable or multizone meters (mz)
-            if (CHANNELNAME_MULTIZONE_ENABLE.equals(channelUID.getId())) {
-
-                mower.setMultiZoneEnable(OnOffType.ON.equals(command));
-                sendZoneMeter();
+            // commands are queued by bridge while AWS is reconnecting
+            if (getThing().getStatus() != ThingStatus.ONLINE && !bridgeHandler.isQueueingMessages()) {
+                logger.error("handleCommand mower: {} ({}) is offline!", getThing().getLabel(),
+                        mower.get().getSerialNumber());
                 return;
-
             }
 
-            if (CHANNELNAME_LAST_ZONE.equals(channelUID.getId())) {
+            dispatchCommand(channelUID, command);
 
-                if (mower.getStatus() != WorxLandroidStatusCodes.HOME.getCode()) {
-                    logger.warn("Cannot start zone because mower must be at HOME!");
-                    return;
-                }
-                zoneMeterRestoreValues = mower.getZoneMeters();
-                restoreZoneMeter = true;
+        } catch (AWSIotException e) {
+            logger.error("error: {}", e.getLocalizedMessage());
+        }
+    }
 
-                int meter = mower.getZoneMeter(Integer.parseInt(command.toString()));
-                for (int zoneIndex = 0; zoneIndex < 4; zoneIndex++) {
-                    mower.setZoneMeter(zoneIndex, meter);
-                }
-                sendZoneMeter();
+    /**
+     * Pass a command to the handler of its channel.
+     *
+     * @param channelUID
+     * @param command
+     * @throws AWSIotException
+     */
+    void dispatchCommand(ChannelUID channelUID, Command command) throws AWSIotException {
 
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException e) {
-                }
-                // start
-                sendCommand(AWSMessage.CMD_START);
+        ChannelTable.Entry entry = channels.get(channelUID.getId());
+        ChannelTable.CommandHandler commandHandler = entry != null ? entry.getCommandHandler() : null;
+        if (commandHandler == null) {
+            logger.debug("command for ChannelUID not supported: {}", channelUID.getAsString());
+            sendCommand(CommandEncoder.EMPTY_PAYLOAD);
+            return;
+        }
+        commandHandler.handle(command);
+    }
 
-                return;
-            }
-            if (channelUID.getId().startsWith("cfgMultiZones#zone")) {
-                // extract zone of from channel
-                Pattern pattern = Pattern.compile("cfgMultiZones#zone(\\d)Meter");
-                Matcher matcher = pattern.matcher(channelUID.getId());
-                int zone = 0;
-                if (matcher.find()) {
-                    zone = Integer.parseInt(matcher.group(1));
-                }
-                mower.setZoneMeter(zone - 1, Integer.parseInt(command.toString()));
-                sendZoneMeter();
-                return;
+    /**
+     * Start mowing the zone of the given allocation index: all zone meters are set to the start point of the zone
+     * until the mower left home.
+     *
+     * @param command allocation index
+     * @throws AWSIotException
+     */
+    private void startZone(Command command) throws AWSIotException {
 
-            }
-            // channel: multizone allocation (mzv)
-            if (channelUID.getId().startsWith(CHANNELNAME_PREFIX_ALLOCATION)) {
-
-                JsonObject jsonObject = new JsonObject();
-                JsonArray mzv = new JsonArray();
-
-                // extract allocation index of from channel
-                Pattern pattern = Pattern.compile(CHANNELNAME_PREFIX_ALLOCATION + "(\\d)");
-                Matcher matcher = pattern.matcher(channelUID.getId());
-                int allocationIndex = 0;
-                if (matcher.find()) {
-                    allocationIndex = Integer.parseInt(matcher.group(1));
-                }
+        Mower current = mower.get();
+        if (current.getStatus() != WorxLandroidStatusCodes.HOME.getCode()) {
+            logger.warn("Cannot start zone because mower must be at HOME!");
+            return;
+        }
+        zoneMeterRestoreValues = current.getZoneMeters();
+        restoreZoneMeter = true;
 
-                mower.setAllocation(allocationIndex, Integer.parseInt(command.toString()));
+        int zone = Integer.parseInt(command.toString());
+        sendZoneMeter(mower.updateAndGet(m -> {
+            int[] meters = new int[MowerState.ZONE_COUNT];
+            Arrays.fill(meters, m.getZoneMeter(zone));
+            return m.withZoneMeters(meters);
+        }));
 
-                for (int i = 0; i < 10; i++) {
-                    mzv.add(mower.getAllocation(i));
-                }
+        try {
+            Thread.sleep(2000);
+        } catch (InterruptedException e) {
+        }
+        // start
+        sendCommand(CommandEncoder.encodeCommand(WorxLandroidActionCodes.START));
+    }
 
-                jsonObject.add("mzv", mzv);
-                sendCommand(jsonObject.toString());
-                return;
-            }
+    /**
+     * Change the schedule of a day.
+     *
+     * @param dayCode
+     * @param update
+     * @return mower snapshot with the changed day
+     */
+    private Mower updateScheduledDay(WorxLandroidDayCodes dayCode, UnaryOperator<ScheduledDay> update) {
+        return mower.updateAndGet(m -> m.withScheduledDay(dayCode, update.apply(m.getScheduledDay(dayCode))));
+    }
 
-            // update schedule
-            // TODO ugly check
-            if (CHANNELNAME_ENABLE.equals(channelUID.getId()) || channelUID.getId().startsWith("cfgSc")) {
-                // update mower data
+    /**
+     * Send 'sc' message with 'p', 'd'.
+     *
+     * @param snapshot mower snapshot to send, the complete week of the same snapshot is sent
+     * @throws AWSIotException
+     */
+    private void sendSchedule(Mower snapshot) throws AWSIotException {
+        if (stateDecoder.skips(MowerStateDecoder.SECTION_SCHEDULE)) {
+            logger.warn("mower {}: schedule is not decoded (decodeProfile), command ignored",
+                    snapshot.getSerialNumber());
+            return;
+        }
+        sendCommand(commandEncoder.encodeSchedule(snapshot));
+    }
 
-                // update enable mowing or schedule or timeExtension/enable?
-                if (CHANNELNAME_ENABLE.equals(channelUID.getId())) {
+    /**
+     * Send 'mz' message.
+     *
+     * @param snapshot mower snapshot to send
+     * @throws AWSIotException
+     */
+    private void sendZoneMeter(Mower snapshot) throws AWSIotException {
+        if (stateDecoder.skips(MowerStateDecoder.SECTION_ZONE_METERS)) {
+            logger.warn("mower {}: zone meters are not decoded (decodeProfile), command ignored",
+                    snapshot.getSerialNumber());
+            return;
+        }
+        sendCommand(commandEncoder.encodeZoneMeters(snapshot));
+    }
 
-                    mower.setEnable(OnOffType.ON.equals(command));
+    /**
+     * Send given command.
+     *
+     * @param cmd encoded payload
+     * @throws AWSIotException
+     */
+    void sendCommand(byte[] cmd) throws AWSIotException {
+        sendCommand(getWorxLandroidBridgeHandler(), cmd);
+    }
 
-                } else if (CHANNELNAME_SC_TIME_EXTENSION.equals(channelUID.getId())) {
+    /**
+     * Send a command encoded by the caller, e.g. one payload for all mowers of a fleet command.
+     *
+     * @param bridgeHandler
+     * @param cmd encoded payload, not modified
+     * @return completed with the round trip in milliseconds when the mower answers the command: a message with the
+     *         sent command in 'cfg/cmd', or any message for a poll
+     */
+    CompletableFuture<Long> sendFleetCommand(WorxLandroidBridgeHandler bridgeHandler, byte[] cmd) {
+
+        CompletableFuture<Long> answer = new CompletableFuture<>();
+        int commandCode = PayloadScanner.scanInt(new String(cmd, StandardCharsets.UTF_8), "cmd", NO_CODE);
+        PendingAnswer pending = new PendingAnswer(answer, commandCode, System.currentTimeMillis());
+        PendingAnswer previous = pendingAnswer.getAndSet(pending);
+        if (previous != null) {
+            previous.answer.cancel(false);
+        }
 
-                    mower.setTimeExtension(Integer.parseInt(command.toString()));
+        try {
+            if (mqttCommandIn.isEmpty()) {
+                throw new AWSIotException("mower " + mower.get().getSerialNumber() + " is not initialized");
+            }
+            sendCommand(bridgeHandler, cmd);
+        } catch (AWSIotException e) {
+            pendingAnswer.compareAndSet(pending, null);
+            answer.completeExceptionally(e);
+        }
+        return answer;
+    }
 
-                } else {
+    private void sendCommand(WorxLandroidBridgeHandler bridgeHandler, byte[] cmd) throws AWSIotException {
 
-                    // extract name of from channel
-                    Pattern pattern = Pattern.compile("cfgSc(.*?)#");
-                    Matcher matcher = pattern.matcher(channelUID.getId());
-                    String day = "";
-                    if (matcher.find()) {
-                        day = (matcher.group(1));
-                    }
+        AWSMessage message = new AWSMessage(mqttCommandIn, bridgeHandler.getCommandQos(), cmd);
 
-                    WorxLandroidDayCodes dayCodeUpdated = WorxLandroidDayCodes.valueOf(day.toUpperCase());
-                    ScheduledDay scheduledDayUpdated = mower.getScheduledDay(dayCodeUpdated);
+        // the answer has to be processed even if it repeats the previous state, to reset rejected channel changes
+        hasFingerprint = false;
+        if (logger.isDebugEnabled()) {
+            logger.debug("send command: {}", message.getStringPayload());
+        }
 
-                    String chName = channelUID.getId().split("#")[1];
-                    switch (chName) {
-                        case "enable":
-                            scheduledDayUpdated.setEnable(OnOffType.ON.equals(command));
-                            break;
+        commandSentAt = System.currentTimeMillis();
+        bridgeHandler.publishMessage(mower.get().getSerialNumber(), message);
+    }
 
-                        case "scheduleStartHour":
-                            scheduledDayUpdated.setHours(Integer.parseInt(command.toString()));
-                            break;
+    /**
+     * Update metrics channels with the traffic statistics of this mower.
+     */
+    private void updateMetrics() {
 
-                        case "scheduleStartMinutes":
-                            scheduledDayUpdated.setMinutes(Integer.parseInt(command.toString()));
-                            break;
+        WorxLandroidBridgeHandler bridgeHandler = getWorxLandroidBridgeHandler();
+        if (bridgeHandler == null || mqttCommandIn.isEmpty() || mqttCommandOut.isEmpty()) {
+            return;
+        }
 
-                        case "scheduleDuration":
-                            scheduledDayUpdated.setDuration(Integer.parseInt(command.toString()));
-                            break;
+        MqttMetrics metrics = bridgeHandler.getMetrics();
+        MetricsChannels.update(metrics.getOrCreateTopicStats(mqttCommandOut),
+                metrics.getOrCreateTopicStats(mqttCommandIn), this::updateState);
+    }
 
-                        case "scheduleEdgecut":
-                            scheduledDayUpdated.setEdgecut(OnOffType.ON.equals(command));
-                            break;
+    @Override
+    public void processMessage(@Nullable AWSIotMessage message) {
 
-                        default:
-                            break;
-                    }
-                }
+        if (message == null) {
+            logger.debug("message is null!");
+            return;
+        }
 
-                sendSchedule();
-                return;
-            }
+        long receivedAt = System.currentTimeMillis();
+        updateStatus(ThingStatus.ONLINE);
 
-            String cmd = AWSMessage.EMPTY_PAYLOAD;
-
-            switch (channelUID.getId()) {
-
-                // start action
-                case CHANNELNAME_ACTION:
-                    WorxLandroidActionCodes actionCode = WorxLandroidActionCodes.valueOf(command.toString());
-                    logger.debug("{}", actionCode.toString());
-                    cmd = String.format("{\"cmd\":%s}", actionCode.getCode());
-                    break;
-
-                // poll
-                case CHANNELNAME_POLL:
-                    cmd = AWSMessage.EMPTY_PAYLOAD;
-                    updateState(CHANNELNAME_POLL, OnOffType.OFF);
-                    break;
-
-                // update rainDelay
-                case CHANNELNAME_RAIN_DELAY:
-                    cmd = String.format("{\"rd\":%s}", command);
-                    break;
-
-                // lock/unlock
-                case CHANNELNAME_LOCK:
-                    WorxLandroidActionCodes lockCode = OnOffType.ON.equals(command) ? WorxLandroidActionCodes.LOCK
-                            : WorxLandroidActionCodes.UNLOCK;
-                    logger.debug("{}", lockCode.toString());
-                    cmd = String.format("{\"cmd\":%s}", lockCode.getCode());
-                    break;
-
-                default:
-                    logger.debug("command for ChannelUID not supported: {}", channelUID.getAsString());
-                    break;
+        long sentAt = commandSentAt;
+        if (sentAt != 0) {
+            commandSentAt = 0;
+            WorxLandroidBridgeHandler bridgeHandler = getWorxLandroidBridgeHandler();
+            if (bridgeHandler != null) {
+                bridgeHandler.getMetrics().recordRoundTrip(message.getTopic(), receivedAt - sentAt);
             }
+        }
 
-            sendCommand(cmd);
+        String payload = message.getStringPayload();
+        PendingAnswer pending = pendingAnswer.get();
+        if (pending != null && pending.isAnsweredBy(payload) && pendingAnswer.compareAndSet(pending, null)) {
+            pending.answer.complete(receivedAt - pending.sentAt);
+        }
+        long sequence = messageSequence.incrementAndGet();
 
-        } catch (
+        // all channels are published again after forceRefreshInterval, even if the message repeats the previous one
+        if (isForcedRefreshDue(receivedAt)) {
+            hasFingerprint = false;
+        }
 
-        AWSIotException e) {
-            logger.error("error: {}", e.getLocalizedMessage());
+        long fingerprint = PayloadFingerprint.of(payload);
+        if (hasFingerprint && fingerprint == lastFingerprint) {
+            processDuplicateMessage(message.getTopic());
+            return;
+        }
+        lastFingerprint = fingerprint;
+        hasFingerprint = true;
+
+        // fast path: critical states are published before anything else
+        processCriticalState(payload, sequence);
+
+        // all other values are processed by the scheduler, only the latest pending message is processed
+        if (pendingMessage.getAndSet(new ReceivedMessage(message.getTopic(), payload, receivedAt, sequence)) == null) {
+            scheduler.execute(this::processPendingMessage);
         }
     }
 
     /**
-     * Send 'sc' message with 'p', 'd'.
+     * Message repeats the previous one (apart from its timestamp): only online bookkeeping is updated.
      *
-     * @throws AWSIotException
+     * @param topic
      */
-    private void sendSchedule() throws AWSIotException {
-        // generate 'sc' message
-        JsonObject jsonObject = new JsonObject();
-        JsonObject sc = new JsonObject();
-
-        // timeExtension
-        sc.add("p", new JsonPrimitive(mower.getTimeExtension()));
+    private void processDuplicateMessage(String topic) {
 
-        // schedule
-        JsonArray jsonArray = new JsonArray();
+        logger.trace("mower {} skip repeated message", mower.get().getSerialNumber());
 
-        for (WorxLandroidDayCodes dayCode : WorxLandroidDayCodes.values()) {
-
-            JsonArray scDay = new JsonArray();
-            ScheduledDay scheduledDay = mower.getScheduledDay(dayCode);
-
-            String minutes = scheduledDay.getMinutes() < 10 ? "0" + scheduledDay.getMinutes()
-                    : String.valueOf(scheduledDay.getMinutes());
-            scDay.add(String.format("%d:%s", scheduledDay.getHour(), minutes));
-            scDay.add(scheduledDay.getDuration());
-            scDay.add(scheduledDay.isEdgecut() ? 1 : 0);
-            jsonArray.add(scDay);
+        if (!mower.get().isOnline()) {
+            mower.updateAndGet(m -> m.withOnline(true));
+            updateState(CHANNELNAME_ONLINE, OnOffType.ON);
         }
-        sc.add("d", jsonArray);
-        jsonObject.add("sc", sc);
+        updateState(CHANNELNAME_LAST_UPDATE_ONLINE_STATUS, new DateTimeType());
 
-        sendCommand(jsonObject.toString());
+        WorxLandroidBridgeHandler bridgeHandler = getWorxLandroidBridgeHandler();
+        if (bridgeHandler != null) {
+            bridgeHandler.getMetrics().recordDuplicate(topic);
+        }
     }
 
     /**
-     * Send 'mz' message.
+     * Publishes status and error code of a raw payload and triggers the alert channel if the mower changed into a
+     * critical state.
      *
-     * @throws AWSIotException
+     * @param payload
+     * @param sequence sequence number of the message
      */
-    private void sendZoneMeter() throws AWSIotException {
-        String cmd;
-        JsonObject jsonObject = new JsonObject();
-        JsonArray mz = new JsonArray();
+    private void processCriticalState(String payload, long sequence) {
 
-        for (int zoneIndex = 0; zoneIndex < 4; zoneIndex++) {
-            mz.add(mower.getZoneMeter(zoneIndex));
+        int statusCode = PayloadScanner.scanInt(payload, "ls", NO_CODE);
+        int errorCode = PayloadScanner.scanInt(payload, "le", NO_CODE);
+        if (statusCode == NO_CODE && errorCode == NO_CODE) {
+            return;
         }
 
-        jsonObject.add("mz", mz);
-        sendCommand(jsonObject.toString());
+        synchronized (criticalLock) {
+            if (!isLatestCriticalState(sequence)) {
+                return;
+            }
+            criticalSequence = sequence;
+            publishCriticalState(payload, statusCode, errorCode);
+        }
     }
 
     /**
-     * Send given command.
-     *
-     * @param cmd
-     * @throws AWSIotException
+     * @param sequence sequence number of a message, {@link #NO_SEQUENCE} if not received live
+     * @return true if status and error of the message are not older than the published ones
      */
-    private void sendCommand(String cmd) throws AWSIotException {
+    private boolean isLatestCriticalState(long sequence) {
+        return sequence == NO_SEQUENCE || sequence >= criticalSequence;
+    }
 
-        logger.debug("send command: {}", cmd);
+    private void publishCriticalState(String payload, int statusCode, int errorCode) {
 
-        WorxLandroidBridgeHandler bridgeHandler = getWorxLandroidBridgeHandler();
-        AWSMessage message = new AWSMessage(mqttCommandIn, AWSIotQos.QOS0, cmd);
-        bridgeHandler.publishMessage(message);
-    }
+        if (statusCode != NO_CODE) {
 
-    @Override
-    public void processMessage(@Nullable AWSIotMessage message) {
+            WorxLandroidStatusCodes code = WorxLandroidStatusCodes.getByCode(statusCode);
+            if (code == WorxLandroidStatusCodes.UNKNOWN && statusCode != code.getCode()) {
+                recordUnknownCode(WorxLandroidStatusCodes.class, statusCode, payload);
+            }
+            channels.updateNumber(chStatusCode, statusCode);
+            channels.updateString(chStatusDescription, code.getDescription());
 
-        if (message == null) {
-            logger.debug("message is null!");
-            return;
+            String alert = code.isCritical() ? ALERT_PREFIX_STATUS + code.name() : null;
+            if (alert != null && !alert.equals(statusAlert)) {
+                logger.debug("mower {} alert -> {}", mower.get().getSerialNumber(), alert);
+                triggerChannel(CHANNELNAME_ALERT, alert);
+            }
+            statusAlert = alert;
         }
 
-        updateStatus(ThingStatus.ONLINE);
+        if (errorCode != NO_CODE) {
 
-        JsonElement jsonElement = new JsonParser().parse(message.getStringPayload());
+            WorxLandroidErrorCodes code = WorxLandroidErrorCodes.getByCode(errorCode);
+            if (code == WorxLandroidErrorCodes.UNKNOWN && errorCode != code.getCode()) {
+                recordUnknownCode(WorxLandroidErrorCodes.class, errorCode, payload);
+            }
+            channels.updateNumber(chErrorCode, errorCode);
+            channels.updateString(chErrorDescription, code.getDescription());
 
-        if (jsonElement.isJsonObject()) {
-            processStatusMessage(jsonElement.getAsJsonObject());
+            String alert = null;
+            if (errorCode != WorxLandroidErrorCodes.NO_ERR.getCode()) {
+                alert = ALERT_PREFIX_ERROR
+                        + (code == WorxLandroidErrorCodes.UNKNOWN ? String.valueOf(errorCode) : code.name());
+            }
+            if (alert != null && !alert.equals(errorAlert)) {
+                logger.debug("mower {} alert -> {}", mower.get().getSerialNumber(), alert);
+                triggerChannel(CHANNELNAME_ALERT, alert);
+            }
+            errorAlert = alert;
         }
     }
 
     /**
-     * @param jsonMessage
+     * Record a code which is not known by the binding, e.g. of a new firmware.
+     *
+     * @param type
+     * @param code
+     * @param payload
      */
-    public void processStatusMessage(JsonObject jsonMessage) {
-        // cfg
-        if (jsonMessage.get("cfg") != null) {
-            updateStateCfg(jsonMessage.get("cfg").getAsJsonObject());
+    private void recordUnknownCode(Class<? extends Codes> type, int code, String payload) {
+
+        WorxLandroidBridgeHandler bridgeHandler = getWorxLandroidBridgeHandler();
+        if (bridgeHandler != null && bridgeHandler.getUnknownCodeRecorder().record(type, code, payload)) {
+            logger.info("mower {} reported unknown {} {} -> {}", mower.get().getSerialNumber(), type.getSimpleName(),
+                    code, payload);
         }
+    }
 
-        // dat
-        if (jsonMessage.get("dat") != null) {
-            updateStateDat(jsonMessage.get("dat").getAsJsonObject());
+    /**
+     * Process latest received message.
+     */
+    private void processPendingMessage() {
+
+        synchronized (processLock) {
+
+            ReceivedMessage received = pendingMessage.getAndSet(null);
+            if (received == null) {
+                return;
+            }
+
+            try {
+                if (processPayload(received.payload, received.receivedAt, received.sequence)) {
+
+                    // lag between mower timestamp and receive time, without the drift of the mower clock
+                    long lag = clock.getLag();
+                    WorxLandroidBridgeHandler bridgeHandler = getWorxLandroidBridgeHandler();
+                    if (lag >= 0 && bridgeHandler != null) {
+                        bridgeHandler.getMetrics().recordLag(received.topic, lag);
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.warn("processing message of mower {} failed -> {}", mower.get().getSerialNumber(),
+                        e.getMessage());
+            }
         }
     }
 
     /**
-     * Update states for data values
+     * Decode raw payload and update all channels, also used by the replay test.
      *
-     * @param dat
+     * @param payload
+     * @return false if the payload is not a JSON object
+     */
+    boolean processPayload(String payload) {
+        return processPayload(payload, 0, NO_SEQUENCE);
+    }
+
+    /**
+     * @param payload
+     * @param receivedAt receive time of a live message, 0 if unknown (clock drift is not updated)
+     * @param sequence sequence number of a live message, {@link #NO_SEQUENCE} if unknown
+     * @return false if the payload is not a JSON object
      */
-    private void updateStateDat(JsonObject dat) {
+    private boolean processPayload(String payload, long receivedAt, long sequence) {
 
-        // dat/mac -> macAddress
-        if (dat.get("mac") != null) {
-            updateState(CHANNELNAME_MAC_ADRESS, new StringType(dat.get("mac").getAsString()));
+        if (!stateDecoder.decode(payload, mowerState)) {
+            return false;
         }
 
-        // dat/fw -> firmware
-        if (dat.get("fw") != null) {
-            updateState(CHANNELNAME_FIRMWARE, new DecimalType(dat.get("fw").getAsBigDecimal()));
+        // publish all values from time to time, even if unchanged
+        long now = System.currentTimeMillis();
+        if (isForcedRefreshDue(now)) {
+            channels.invalidateAll();
+            lastForcedRefresh = now;
         }
 
-        // dat/bt
-        if (dat.get("bt") != null) {
-            JsonObject bt = dat.getAsJsonObject("bt");
-            // dat/bt/t -> batteryTemperature
-            if (bt.get("t") != null) {
-                updateState(CHANNELNAME_BATTERY_TEMPERATURE, new DecimalType(bt.get("t").getAsBigDecimal()));
-            }
-            // dat/bt/v -> batteryVoltage
-            if (bt.get("v") != null) {
-                updateState(CHANNELNAME_BATTERY_VOLTAGE, new DecimalType(bt.get("v").getAsBigDecimal()));
-            }
-            // dat/bt/p -> batteryLevel
-            if (bt.get("p") != null) {
-                updateState(CHANNELNAME_BATTERY_LEVEL, new DecimalType(bt.get("p").getAsLong()));
-            }
-            // dat/bt/nr -> batteryChargeCycle
-            if (bt.get("nr") != null) {
-                updateState(CHANNELNAME_BATTERY_CHARGE_CYCLE, new DecimalType(bt.get("nr").getAsBigDecimal()));
-            }
-            // dat/bt/c -> batteryCharging - 1=charging
-            if (bt.get("c") != null) {
-                boolean state = bt.get("c").getAsInt() == 1 ? Boolean.TRUE : Boolean.FALSE;
-                updateState(CHANNELNAME_BATTERY_CHARGING, OnOffType.from(state));
-            }
-            // TODO dat/bt/m -> ?
+        processStatusMessage(mowerState, receivedAt, sequence);
+        return true;
+    }
+
+    /**
+     * @param now
+     * @return true if all channels have to be published again, even if unchanged
+     */
+    private boolean isForcedRefreshDue(long now) {
+        return forceRefreshInterval <= 0 || now - lastForcedRefresh >= forceRefreshInterval;
+    }
+
+    /**
+     * @param state decoded status message
+     */
+    private void processStatusMessage(MowerState state, long receivedAt, long sequence) {
+        // cfg
+        if (state.has(MowerState.CFG)) {
+            updateStateCfg(state, receivedAt);
         }
 
-        // dat/dmp
-        if (dat.get("dmp") != null) {
-            JsonArray dmp = dat.getAsJsonArray("dmp");
-            // dat/dmp.[0] -> pitch
-            if (dmp.get(0) != null) {
-                updateState(CHANNELNAME_PITCH, new DecimalType(dmp.get(0).getAsBigDecimal()));
-            }
-            // dat/dmp.[1] -> roll
-            if (dmp.get(1) != null) {
-                updateState(CHANNELNAME_ROLL, new DecimalType(dmp.get(1).getAsBigDecimal()));
-            }
-            // dat/dmp.[2] -> yaw
-            if (dmp.get(2) != null) {
-                updateState(CHANNELNAME_YAW, new DecimalType(dmp.get(2).getAsBigDecimal()));
-            }
+        // dat
+        if (state.has(MowerState.DAT)) {
+            updateStateDat(state, sequence);
         }
 
-        // dat/st
-        if (dat.get("st") != null) {
-            JsonObject st = dat.getAsJsonObject("st");
-            // dat/st/b -> totalBladeTime
-            if (st.get("b") != null) {
-                updateState(CHANNELNAME_TOTAL_BLADE_TIME, new DecimalType(st.get("b").getAsLong()));
-            }
-            // dat/st/d -> totalDistance
-            if (st.get("d") != null) {
-                updateState(CHANNELNAME_TOTAL_DISTANCE, new DecimalType(st.get("d").getAsLong()));
-            }
-            if (st.get("wt") != null) {
-                // dat/st/wt -> totalTime
-                updateState(CHANNELNAME_TOTAL_TIME, new DecimalType(st.get("wt").getAsLong()));
+        // values mapped directly to a channel
+        channels.publish(state);
+    }
+
+    /**
+     * Update states for data values which are not mapped directly to a channel
+     *
+     * @param dat
+     * @param sequence sequence number of the message
+     */
+    private void updateStateDat(MowerState dat, long sequence) {
+
+        // a newer message may have published its status and error on the fast path in the meantime
+        boolean latest;
+        synchronized (criticalLock) {
+            latest = isLatestCriticalState(sequence);
+            if (latest) {
+                updateStateDatCritical(dat);
             }
-            // TODO dat/st/bl -> ?
         }
 
-        if (dat.get("ls") != null) {
-            // dat/ls -> statusCode
-            long statusCode = dat.get("ls").getAsLong();
-            mower.setStatus(statusCode);
-            updateState(CHANNELNAME_STATUS_CODE, new DecimalType(statusCode));
-
-            WorxLandroidStatusCodes code = WorxLandroidStatusCodes.getByCode((int) statusCode) == null
-                    ? WorxLandroidStatusCodes.UNKNOWN
-                    : WorxLandroidStatusCodes.getByCode((int) statusCode);
-            updateState(CHANNELNAME_STATUS_DESCRIPTION, new StringType(code.getDescription()));
-            logger.debug("{}", code.toString());
+        if (latest && dat.has(MowerState.STATUS)) {
+            long statusCode = dat.getStatus();
 
             // restore
             if (restoreZoneMeter) {
@@ -715,175 +1181,202 @@ public class WorxLandroidMowerHandler extends BaseThingHandler implements AWSMes
                         && statusCode != WorxLandroidStatusCodes.LEAVING_HOME.getCode()
                         && statusCode != WorxLandroidStatusCodes.SEARCHING_ZONE.getCode()) {
                     restoreZoneMeter = false;
-                    mower.setZoneMeters(zoneMeterRestoreValues);
+                    int[] restoreValues = zoneMeterRestoreValues;
                     try {
-                        sendZoneMeter();
+                        sendZoneMeter(mower.updateAndGet(m -> m.withZoneMeters(restoreValues)));
                     } catch (AWSIotException e) {
                         // TODO Auto-generated catch block
                     }
                 }
             }
         }
-        // dat/le -> errorCode
-        if (dat.get("le") != null) {
-            long errorCode = dat.get("le").getAsLong();
-            updateState(CHANNELNAME_ERROR_CODE, new DecimalType(errorCode));
-
-            WorxLandroidErrorCodes code = WorxLandroidErrorCodes.getByCode((int) errorCode) == null
-                    ? WorxLandroidErrorCodes.UNKNOWN
-                    : WorxLandroidErrorCodes.getByCode((int) errorCode);
-            updateState(CHANNELNAME_ERROR_DESCRIPTION, new StringType(code.getDescription()));
-            logger.debug("{}", code.toString());
-        }
-
-        // dat/lz -> lastZone
-        if (dat.get("lz") != null) {
-            int lastZoneIndex = dat.get("lz").getAsInt();
 
-            int lastZone = mower.getAllocation(lastZoneIndex);
-            updateState(CHANNELNAME_LAST_ZONE, new DecimalType(lastZone));
-        }
-
-        // dat/rsi -> wifiQuality
-        if (dat.get("rsi") != null) {
-            updateState(CHANNELNAME_WIFI_QUALITY, new DecimalType(dat.get("rsi").getAsLong()));
+        // dat/lz -> lastZone, mapped by the allocations
+        if (dat.has(MowerState.LAST_ZONE) && !stateDecoder.skips(MowerStateDecoder.SECTION_ZONE_ALLOCATIONS)) {
+            int lastZone = mower.get().getAllocation(dat.getLastZone());
+            channels.updateNumber(chLastZone, lastZone);
         }
 
         // dat/lk -> lock
-        if (mower.isLockSupported() && dat.get("lk") != null) {
-            boolean lock = dat.get("lk").getAsInt() == 1 ? Boolean.TRUE : Boolean.FALSE;
-            updateState(CHANNELNAME_LOCK, OnOffType.from(lock));
+        if (mower.get().isLockSupported() && dat.has(MowerState.LOCK)) {
+            channels.updateSwitch(chLock, dat.isLock());
         }
 
+        // TODO dat/bt/m -> ?
+        // TODO dat/st/bl -> ?
         // TODO dat/act -> ?
         // TODO dat/conn -> ?
         // TODO dat/modules/US/stat -> ?
     }
 
     /**
-     * Update states for cfg values
+     * Update status and error of the mower (guarded by criticalLock).
      *
-     * @param cfg
+     * @param dat
      */
-    private void updateStateCfg(JsonObject cfg) {
+    private void updateStateDatCritical(MowerState dat) {
 
-        // cfg/id -> id
-        if (cfg.get("id") != null) {
-            updateState(CHANNELNAME_ID, new DecimalType(cfg.get("id").getAsLong()));
+        if (dat.has(MowerState.STATUS)) {
+            // dat/ls -> statusCode
+            long statusCode = dat.getStatus();
+            mower.updateAndGet(m -> m.withStatus(statusCode));
+            channels.updateNumber(chStatusCode, statusCode);
+
+            WorxLandroidStatusCodes code = WorxLandroidStatusCodes.getByCode((int) statusCode);
+            channels.updateString(chStatusDescription, code.getDescription());
+            logger.debug("{}", code.toString());
         }
+        // dat/le -> errorCode
+        if (dat.has(MowerState.ERROR)) {
+            long errorCode = dat.getError();
+            channels.updateNumber(chErrorCode, errorCode);
 
-        // cfg/lg -> language
-        if (cfg.get("lg") != null) {
-            updateState(CHANNELNAME_LANGUAGE, new StringType(cfg.get("lg").getAsString()));
+            WorxLandroidErrorCodes code = WorxLandroidErrorCodes.getByCode((int) errorCode);
+            channels.updateString(chErrorDescription, code.getDescription());
+            logger.debug("{}", code.toString());
         }
+    }
+
+    /**
+     * Update states for cfg values which are not mapped directly to a channel
+     *
+     * @param cfg
+     * @param receivedAt receive time of the message, 0 if unknown
+     */
+    private void updateStateCfg(MowerState cfg, long receivedAt) {
 
         // cfg/dt + cfg/tm
         // "tm": "17:09:34","dt": "13/03/2020",
-        String dateTime = String.format("%s %s", cfg.get("dt").getAsString(), cfg.get("tm").getAsString());
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        LocalDateTime localeDateTime = LocalDateTime.parse(dateTime, formatter);
-
-        ZoneId zoneId = ZoneId.getAvailableZoneIds().contains("time_zone") ? ZoneId.of("time_zone")
-                : ZoneId.systemDefault();
-        ZonedDateTime zonedDateTime = ZonedDateTime.of(localeDateTime, zoneId);
-        updateState(CHANNELNAME_DATETIME, new DateTimeType(zonedDateTime));
-
-        // TODO cfg/sc
-        if (cfg.get("sc") != null) {
-            JsonObject sc = cfg.getAsJsonObject("sc");
-            // TODO cfg/sc/m
-            // cfg/sc/p
-            if (sc.get("p") != null) {
-                int timeExtension = sc.get("p").getAsInt();
-                mower.setTimeExtension(timeExtension);
-                updateState(CHANNELNAME_SC_TIME_EXTENSION, new DecimalType(timeExtension));
-                // mower enable
-                updateState(CHANNELNAME_ENABLE, OnOffType.from(mower.isEnable()));
+        if (cfg.has(MowerState.DATE) && cfg.has(MowerState.TIME)
+                && clock.update(cfg.getDate(), cfg.getTime(), receivedAt)) {
+            ZonedDateTime dateTime = clock.getDateTime();
+            if (dateTime != null) {
+                channels.update(chDateTime, new DateTimeType(dateTime));
             }
-            if (sc.get("d") != null) {
-                JsonArray d = sc.get("d").getAsJsonArray();
-
-                for (WorxLandroidDayCodes dayCode : WorxLandroidDayCodes.values()) {
-
-                    JsonArray shedule = d.get(dayCode.getCode()).getAsJsonArray();
-                    ScheduledDay scheduledDay = mower.getScheduledDay(dayCode);
-
-                    String time[] = shedule.get(0).getAsString().split(":");
-
-                    // hour
-                    String channelNameStartHour = String.format("cfgSc%s#scheduleStartHour", dayCode.getDescription());
-                    scheduledDay.setHours(Integer.parseInt(time[0]));
-                    updateState(channelNameStartHour, new DecimalType(time[0]));
-
-                    // minutes
-                    String channelNameStartMin = String.format("cfgSc%s#scheduleStartMinutes",
-                            dayCode.getDescription());
-                    scheduledDay.setMinutes(Integer.parseInt(time[1]));
-                    updateState(channelNameStartMin, new DecimalType(time[1]));
-
-                    // duration (and implicit enable)
-                    String channelNameDuration = String.format("cfgSc%s#scheduleDuration", dayCode.getDescription());
-                    int duration = shedule.get(1).getAsInt();
-                    scheduledDay.setDuration(duration);
-                    updateState(channelNameDuration, new DecimalType(shedule.get(1).getAsLong()));
-                    // enable
-                    String channelNameEnable = String.format("cfgSc%s#enable", dayCode.getDescription());
-                    updateState(channelNameEnable, OnOffType.from(scheduledDay.isEnable()));
-
-                    // edgecut
-                    String channelNameEdgecut = String.format("cfgSc%s#scheduleEdgecut", dayCode.getDescription());
-                    boolean edgecut = shedule.get(2).getAsInt() == 1 ? Boolean.TRUE : Boolean.FALSE;
-                    scheduledDay.setEdgecut(edgecut);
-                    updateState(channelNameEdgecut, OnOffType.from(edgecut));
-                }
-
+            if (clock.hasDrift()) {
+                channels.updateNumber(chClockDrift, TimeUnit.MILLISECONDS.toSeconds(clock.getDrift()));
             }
         }
 
-        // cfg/cmd -> command
-        if (cfg.get("cmd") != null) {
-            updateState(CHANNELNAME_COMMAND, new DecimalType(cfg.get("cmd").getAsLong()));
+        // TODO cfg/sc/m
+        // cfg/sc/p
+        if (cfg.has(MowerState.TIME_EXTENSION)) {
+            int timeExtension = cfg.getTimeExtension();
+            Mower updated = mower.updateAndGet(m -> m.withTimeExtension(timeExtension));
+            channels.updateNumber(chTimeExtension, timeExtension);
+            // mower enable
+            channels.updateSwitch(chEnable, updated.isEnable());
         }
+        // cfg/sc/d
+        if (cfg.has(MowerState.SCHEDULE)) {
+
+            // the week is changed in a single snapshot
+            Mower updated = mower.updateAndGet(m -> m.withScheduledDays((dayCode, scheduledDay) -> {
+                int day = dayCode.getCode();
+                return scheduledDay.withHours(cfg.getScheduleHour(day)).withMinutes(cfg.getScheduleMinutes(day))
+                        .withDuration(cfg.getScheduleDuration(day)).withEdgecut(cfg.isScheduleEdgecut(day));
+            }));
 
-        if (mower.isMultiZoneSupported()) {
+            for (WorxLandroidDayCodes dayCode : WorxLandroidDayCodes.values()) {
+
+                int day = dayCode.getCode();
+                ScheduledDay scheduledDay = updated.getScheduledDay(dayCode);
+
+                // hour
+                channels.updateNumber(chScheduleStartHour[day], scheduledDay.getHour());
+
+                // minutes
+                channels.updateNumber(chScheduleStartMinutes[day], scheduledDay.getMinutes());
+
+                // duration (and implicit enable)
+                channels.updateNumber(chScheduleDuration[day], scheduledDay.getDuration());
+                // enable
+                channels.updateSwitch(chScheduleEnable[day], scheduledDay.isEnable());
+
+                // edgecut
+                channels.updateSwitch(chScheduleEdgecut[day], scheduledDay.isEdgecut());
+            }
+        }
+
+        Mower current = mower.get();
+        if (current.isMultiZoneSupported()) {
 
             // zone meters
-            if (cfg.get("mz") != null) {
-                JsonArray multizones = cfg.get("mz").getAsJsonArray();
-                for (int zoneIndex = 0; zoneIndex < 4; zoneIndex++) {
-                    int meters = multizones.get(zoneIndex).getAsInt();
-                    mower.setZoneMeter(zoneIndex, meters);
-                    String channelNameZoneMeter = String.format("cfgMultiZones#zone%dMeter", zoneIndex + 1);
-                    updateState(channelNameZoneMeter, new DecimalType(meters));
+            if (cfg.has(MowerState.ZONE_METERS)) {
+                current = mower.updateAndGet(m -> {
+                    Mower updated = m;
+                    for (int zoneIndex = 0; zoneIndex < MowerState.ZONE_COUNT; zoneIndex++) {
+                        updated = updated.withZoneMeter(zoneIndex, cfg.getZoneMeter(zoneIndex));
+                    }
+                    return updated;
+                });
+                for (int zoneIndex = 0; zoneIndex < MowerState.ZONE_COUNT; zoneIndex++) {
+                    channels.updateNumber(chZoneMeter[zoneIndex], current.getZoneMeter(zoneIndex));
                 }
             }
 
             // multizone enable is initialized and set by zone meters
-            updateState(CHANNELNAME_MULTIZONE_ENABLE, OnOffType.from(mower.isMultiZoneEnable()));
+            channels.updateSwitch(chMultiZoneEnable, current.isMultiZoneEnable());
 
             // allocation zones
-            if (cfg.get("mzv") != null) {
-                JsonArray multizoneAllocations = cfg.get("mzv").getAsJsonArray();
-                for (int allocationIndex = 0; allocationIndex < 10; allocationIndex++) {
-                    int zone = multizoneAllocations.get(allocationIndex).getAsInt();
-                    mower.setAllocation(allocationIndex, zone);
-                    String channelNameAlloction = CHANNELNAME_PREFIX_ALLOCATION + allocationIndex;
-                    updateState(channelNameAlloction,
-                            new DecimalType(multizoneAllocations.get(allocationIndex).getAsLong()));
+            if (cfg.has(MowerState.ZONE_ALLOCATIONS)) {
+                int[] allocations = new int[MowerState.ALLOCATION_COUNT];
+                for (int allocationIndex = 0; allocationIndex < MowerState.ALLOCATION_COUNT; allocationIndex++) {
+                    allocations[allocationIndex] = cfg.getZoneAllocation(allocationIndex);
+                    channels.updateNumber(chAllocation[allocationIndex], allocations[allocationIndex]);
                 }
+                current = mower.updateAndGet(m -> m.withAllocations(allocations));
             }
         }
 
         // cfg/rd -> rainDelay
-        if (mower.isRainDelaySupported() && cfg.get("rd") != null) {
-            updateState(CHANNELNAME_RAIN_DELAY, new DecimalType(cfg.get("rd").getAsLong()));
+        if (current.isRainDelaySupported() && cfg.has(MowerState.RAIN_DELAY)) {
+            channels.updateNumber(chRainDelay, cfg.getRainDelay());
         }
 
-        // cfg/sn -> serialNumber
-        if (cfg.get("sn") != null) {
-            updateState(CHANNELNAME_SERIAL_NUMBER, new StringType(cfg.get("sn").getAsString()));
+        // TODO cfg/modules
+    }
+
+    /**
+     * Received message waiting for processing
+     */
+    /**
+     * Fleet command waiting for the answer of the mower
+     */
+    private static class PendingAnswer {
+
+        private final CompletableFuture<Long> answer;
+        // sent command code, NO_CODE for a poll
+        private final int commandCode;
+        private final long sentAt;
+
+        PendingAnswer(CompletableFuture<Long> answer, int commandCode, long sentAt) {
+            this.answer = answer;
+            this.commandCode = commandCode;
+            this.sentAt = sentAt;
         }
 
-        // TODO cfg/modules
+        /**
+         * @param payload received after the command was sent
+         * @return true if the mower reports the sent command, any message answers a poll
+         */
+        boolean isAnsweredBy(String payload) {
+            return commandCode == NO_CODE || PayloadScanner.scanInt(payload, "cmd", NO_CODE) == commandCode;
+        }
+    }
+
+    private static class ReceivedMessage {
+
+        private final String topic;
+        private final String payload;
+        private final long receivedAt;
+        private final long sequence;
+
+        ReceivedMessage(String topic, String payload, long receivedAt, long sequence) {
+            this.topic = topic;
+            this.payload = payload;
+            this.receivedAt = receivedAt;
+            this.sequence = sequence;
+        }
     }
 }
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.codes;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link CodeTable} looks up the constant of a {@link Codes} enum by its code in a dense array, which is built
+ * once per enum.
+ *
+ * @author Nils - Initial contribution
+ *
+ * @param <E> enum of codes
+ */
+@NonNullByDefault
+public class CodeTable<E extends Enum<E> & Codes> {
+
+    private final int minCode;
+    private final @Nullable Object[] constants;
+
+    /**
+     * @param type enum of codes
+     */
+    public CodeTable(Class<E> type) {
+
+        E[] values = type.getEnumConstants();
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (E value : values) {
+            min = Math.min(min, value.getCode());
+            max = Math.max(max, value.getCode());
+        }
+
+        minCode = values.length == 0 ? 0 : min;
+        constants = new Object[values.length == 0 ? 0 : max - min + 1];
+        for (E value : values) {
+            constants[value.getCode() - minCode] = value;
+        }
+    }
+
+    /**
+     * @param code
+     * @return constant of the code, null if unknown
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable E get(int code) {
+
+        int index = code - minCode;
+        if (index < 0 || index >= constants.length) {
+            return null;
+        }
+        return (E) constants[index];
+    }
+
+    /**
+     * @param code
+     * @param sentinel returned for unknown codes
+     * @return constant of the code, sentinel if unknown
+     */
+    public E get(int code, E sentinel) {
+
+        E constant = get(code);
+        return constant != null ? constant : sentinel;
+    }
+}
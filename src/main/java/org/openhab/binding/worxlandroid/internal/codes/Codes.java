@@ -12,8 +12,6 @@
  */
 package org.openhab.binding.worxlandroid.internal.codes;
 
-import java.util.stream.Stream;
-
 /**
  * The {@link Codes} is an interface for error codes
  *
@@ -30,16 +28,4 @@ public interface Codes {
      * @return
      */
     public String getDescription();
-
-    /**
-     *
-     * Lookup ErrorCode.
-     *
-     * @param e
-     * @param code
-     * @return
-     */
-    static <E extends Enum<E> & Codes> E lookup(Class<E> e, int code) {
-        return Stream.of(e.getEnumConstants()).filter(x -> x.getCode() == code).findAny().orElse(null);
-    }
 }
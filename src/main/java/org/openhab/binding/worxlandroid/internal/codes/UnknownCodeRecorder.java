@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.codes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link UnknownCodeRecorder} records codes reported by the mowers which are not part of a {@link Codes} enum, e.g.
+ * codes of a new firmware, with their count and the payload they were seen in first.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class UnknownCodeRecorder {
+
+    // sorted by type and code, so the summaries only change when a code is added
+    private final Map<String, UnknownCode> unknownCodes = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param type enum the code is not part of
+     * @param code
+     * @param payload payload the code was received with
+     * @return true if the code is seen for the first time
+     */
+    public boolean record(Class<? extends Codes> type, int code, String payload) {
+
+        String key = type.getSimpleName() + ":" + code;
+        boolean[] first = { false };
+        UnknownCode unknownCode = unknownCodes.computeIfAbsent(key, k -> {
+            first[0] = true;
+            return new UnknownCode(type.getSimpleName(), code, payload);
+        });
+        unknownCode.count.incrementAndGet();
+        return first[0];
+    }
+
+    /**
+     * @return all unknown codes seen so far
+     */
+    public List<UnknownCode> getUnknownCodes() {
+        return new ArrayList<>(unknownCodes.values());
+    }
+
+    /**
+     * @return codes without counts e.g. "WorxLandroidErrorCodes 20, WorxLandroidStatusCodes 35", empty if none
+     */
+    public String getCodes() {
+        return summarize(false);
+    }
+
+    /**
+     * @return summary e.g. "WorxLandroidErrorCodes 20 (1x), WorxLandroidStatusCodes 35 (3x)", empty if none
+     */
+    @Override
+    public String toString() {
+        return summarize(true);
+    }
+
+    private String summarize(boolean withCount) {
+
+        StringBuilder builder = new StringBuilder();
+        for (UnknownCode unknownCode : unknownCodes.values()) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(unknownCode.getType()).append(' ').append(unknownCode.getCode());
+            if (withCount) {
+                builder.append(" (").append(unknownCode.getCount()).append("x)");
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Unknown code with count and first payload
+     */
+    public static class UnknownCode {
+
+        private final String type;
+        private final int code;
+        private final String firstPayload;
+        private final long firstSeen = System.currentTimeMillis();
+        private final AtomicLong count = new AtomicLong();
+
+        UnknownCode(String type, int code, String firstPayload) {
+            this.type = type;
+            this.code = code;
+            this.firstPayload = firstPayload;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public String getFirstPayload() {
+            return firstPayload;
+        }
+
+        public long getFirstSeen() {
+            return firstSeen;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+    }
+}
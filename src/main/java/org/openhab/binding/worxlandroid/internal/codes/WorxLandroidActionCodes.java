@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.worxlandroid.internal.codes;
 
+import org.eclipse.jdt.annotation.Nullable;
+
 /**
  * The {@link WorxLandroidActionCodes} hosts action codes
  *
@@ -26,6 +28,8 @@ public enum WorxLandroidActionCodes implements Codes {
     LOCK(5, "lock"),
     UNLOCK(6, "unlock");
 
+    private static final CodeTable<WorxLandroidActionCodes> CODES = new CodeTable<>(WorxLandroidActionCodes.class);
+
     private final int code;
     private final String description;
 
@@ -44,6 +48,15 @@ public enum WorxLandroidActionCodes implements Codes {
         return this.description;
     }
 
+    /**
+     *
+     * @param code
+     * @return action of the code, null if unknown
+     */
+    public static @Nullable WorxLandroidActionCodes getByCode(int code) {
+        return CODES.get(code);
+    }
+
     @Override
     public String toString() {
         return String.format("%s | ActionCode: %d - %s", this.name(), this.getCode(), this.getDescription());
@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.worxlandroid.internal.codes;
 
+import org.eclipse.jdt.annotation.Nullable;
+
 /**
  * The {@link WorxLandroidDayCodes} hosts action codes
  *
@@ -27,6 +29,8 @@ public enum WorxLandroidDayCodes implements Codes {
     FRIDAY(5, "Friday"),
     SATURDAY(6, "Saturday");
 
+    private static final CodeTable<WorxLandroidDayCodes> CODES = new CodeTable<>(WorxLandroidDayCodes.class);
+
     private final int code;
     private final String description;
 
@@ -45,6 +49,15 @@ public enum WorxLandroidDayCodes implements Codes {
         return this.description;
     }
 
+    /**
+     *
+     * @param code
+     * @return day of the code, null if unknown
+     */
+    public static @Nullable WorxLandroidDayCodes getByCode(int code) {
+        return CODES.get(code);
+    }
+
     @Override
     public String toString() {
         return String.format("%s | DayCode: %d - %s", this.name(), this.getCode(), this.getDescription());
@@ -39,6 +39,8 @@ public enum WorxLandroidErrorCodes implements Codes {
     MOWER_LOCKED(16, "Mower locked"),
     BATTERY_OVER_TEMPERATURE(17, "Battery over temperature");
 
+    private static final CodeTable<WorxLandroidErrorCodes> CODES = new CodeTable<>(WorxLandroidErrorCodes.class);
+
     private final int code;
     private final String description;
 
@@ -60,10 +62,10 @@ public enum WorxLandroidErrorCodes implements Codes {
     /**
      *
      * @param code
-     * @return
+     * @return error of the code, {@link #UNKNOWN} if unknown
      */
     public static WorxLandroidErrorCodes getByCode(int code) {
-        return Codes.lookup(WorxLandroidErrorCodes.class, code);
+        return CODES.get(code, UNKNOWN);
     }
 
     @Override
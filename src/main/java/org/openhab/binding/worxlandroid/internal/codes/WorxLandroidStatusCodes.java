@@ -39,6 +39,8 @@ public enum WorxLandroidStatusCodes implements Codes {
     SEARCHING_ZONE(33, "Searching zone"),
     PAUSE(34, "Pause");
 
+    private static final CodeTable<WorxLandroidStatusCodes> CODES = new CodeTable<>(WorxLandroidStatusCodes.class);
+
     private final int code;
     private final String description;
 
@@ -57,14 +59,20 @@ public enum WorxLandroidStatusCodes implements Codes {
         return this.description;
     }
 
+    /**
+     * @return true if the mower needs attention (lifted, trapped, blade blocked)
+     */
+    public boolean isCritical() {
+        return this == LIFTED || this == TRAPPED || this == BLADE_BLOCKED;
+    }
+
     /**
      *
      * @param code
-     * @return
+     * @return status of the code, {@link #UNKNOWN} if unknown
      */
     public static WorxLandroidStatusCodes getByCode(int code) {
-
-        return Codes.lookup(WorxLandroidStatusCodes.class, code);
+        return CODES.get(code, UNKNOWN);
     }
 
     @Override
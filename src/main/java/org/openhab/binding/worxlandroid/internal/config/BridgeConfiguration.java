@@ -19,9 +19,38 @@ package org.openhab.binding.worxlandroid.internal.config;
  */
 public class BridgeConfiguration {
 
+    public static final String TRANSPORT_AWS = "aws";
+    public static final String TRANSPORT_LOCAL = "local";
+
     public String webapiUsername;
     public String webapiPassword;
 
+    public int commandQueueSize = 20;
+    public int commandQueueTtl = 300;
+
+    public int reconnectInitialDelay = 1;
+    public int reconnectBaseDelay = 5;
+    public int reconnectMaxDelay = 600;
+    public int offlineGracePeriod = 30;
+
+    public String transport = TRANSPORT_AWS;
+    public String localBrokerUri = "tcp://localhost:1883";
+    public String localBrokerUsername;
+    public String localBrokerPassword;
+
+    public int connections = 1;
+
+    public boolean mqttDiscovery = false;
+    public int discoveryInterval = 24;
+
+    public int commandQos = 1;
+    public int pollQos = 0;
+    public int maxInflight = 10;
+
+    public boolean archive = false;
+    public int archiveSegmentSize = 4;
+    public int archiveSegments = 4;
+
     public String getWebapiUsername() {
         return webapiUsername;
     }
@@ -38,8 +67,168 @@ public class BridgeConfiguration {
         this.webapiPassword = webapiPassword;
     }
 
+    public int getCommandQueueSize() {
+        return commandQueueSize;
+    }
+
+    public void setCommandQueueSize(int commandQueueSize) {
+        this.commandQueueSize = commandQueueSize;
+    }
+
+    public int getCommandQueueTtl() {
+        return commandQueueTtl;
+    }
+
+    public void setCommandQueueTtl(int commandQueueTtl) {
+        this.commandQueueTtl = commandQueueTtl;
+    }
+
+    public int getReconnectInitialDelay() {
+        return reconnectInitialDelay;
+    }
+
+    public void setReconnectInitialDelay(int reconnectInitialDelay) {
+        this.reconnectInitialDelay = reconnectInitialDelay;
+    }
+
+    public int getReconnectBaseDelay() {
+        return reconnectBaseDelay;
+    }
+
+    public void setReconnectBaseDelay(int reconnectBaseDelay) {
+        this.reconnectBaseDelay = reconnectBaseDelay;
+    }
+
+    public int getReconnectMaxDelay() {
+        return reconnectMaxDelay;
+    }
+
+    public void setReconnectMaxDelay(int reconnectMaxDelay) {
+        this.reconnectMaxDelay = reconnectMaxDelay;
+    }
+
+    public int getOfflineGracePeriod() {
+        return offlineGracePeriod;
+    }
+
+    public void setOfflineGracePeriod(int offlineGracePeriod) {
+        this.offlineGracePeriod = offlineGracePeriod;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    public String getLocalBrokerUri() {
+        return localBrokerUri;
+    }
+
+    public void setLocalBrokerUri(String localBrokerUri) {
+        this.localBrokerUri = localBrokerUri;
+    }
+
+    public String getLocalBrokerUsername() {
+        return localBrokerUsername;
+    }
+
+    public void setLocalBrokerUsername(String localBrokerUsername) {
+        this.localBrokerUsername = localBrokerUsername;
+    }
+
+    public String getLocalBrokerPassword() {
+        return localBrokerPassword;
+    }
+
+    public void setLocalBrokerPassword(String localBrokerPassword) {
+        this.localBrokerPassword = localBrokerPassword;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public void setConnections(int connections) {
+        this.connections = connections;
+    }
+
+    public boolean isMqttDiscovery() {
+        return mqttDiscovery;
+    }
+
+    public void setMqttDiscovery(boolean mqttDiscovery) {
+        this.mqttDiscovery = mqttDiscovery;
+    }
+
+    public int getDiscoveryInterval() {
+        return discoveryInterval;
+    }
+
+    public void setDiscoveryInterval(int discoveryInterval) {
+        this.discoveryInterval = discoveryInterval;
+    }
+
+    public int getCommandQos() {
+        return commandQos;
+    }
+
+    public void setCommandQos(int commandQos) {
+        this.commandQos = commandQos;
+    }
+
+    public int getPollQos() {
+        return pollQos;
+    }
+
+    public void setPollQos(int pollQos) {
+        this.pollQos = pollQos;
+    }
+
+    public int getMaxInflight() {
+        return maxInflight;
+    }
+
+    public void setMaxInflight(int maxInflight) {
+        this.maxInflight = maxInflight;
+    }
+
+    public boolean isArchive() {
+        return archive;
+    }
+
+    public void setArchive(boolean archive) {
+        this.archive = archive;
+    }
+
+    public int getArchiveSegmentSize() {
+        return archiveSegmentSize;
+    }
+
+    public void setArchiveSegmentSize(int archiveSegmentSize) {
+        this.archiveSegmentSize = archiveSegmentSize;
+    }
+
+    public int getArchiveSegments() {
+        return archiveSegments;
+    }
+
+    public void setArchiveSegments(int archiveSegments) {
+        this.archiveSegments = archiveSegments;
+    }
+
     @Override
     public String toString() {
-        return String.format("BridgeConfiguration [webapiPassword='%s', webapiPassword='*****']", webapiUsername);
+        return String.format("BridgeConfiguration [webapiUsername='%s', webapiPassword='*****', "
+                + "commandQueueSize='%d', commandQueueTtl='%d', reconnectInitialDelay='%d', reconnectBaseDelay='%d', "
+                + "reconnectMaxDelay='%d', offlineGracePeriod='%d', transport='%s', localBrokerUri='%s', "
+                + "localBrokerUsername='%s', localBrokerPassword='*****', connections='%d', mqttDiscovery='%b', "
+                + "discoveryInterval='%d', commandQos='%d', pollQos='%d', maxInflight='%d', archive='%b', "
+                + "archiveSegmentSize='%d', archiveSegments='%d']", webapiUsername, commandQueueSize, commandQueueTtl,
+                reconnectInitialDelay, reconnectBaseDelay, reconnectMaxDelay, offlineGracePeriod, transport,
+                localBrokerUri, localBrokerUsername, connections, mqttDiscovery, discoveryInterval, commandQos, pollQos,
+                maxInflight, archive, archiveSegmentSize, archiveSegments);
     }
 }
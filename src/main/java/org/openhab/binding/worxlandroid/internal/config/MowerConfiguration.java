@@ -21,6 +21,9 @@ public class MowerConfiguration {
 
     public int refreshStatusInterval = 60;
     public int pollingInterval = 300;
+    public int forceRefreshInterval = 3600;
+    public int stateBatchWindow = 0;
+    public String decodeProfile = "auto";
 
     public int getRefreshStatusInterval() {
         return refreshStatusInterval;
@@ -38,9 +41,34 @@ public class MowerConfiguration {
         this.pollingInterval = pollingInterval;
     }
 
+    public int getForceRefreshInterval() {
+        return forceRefreshInterval;
+    }
+
+    public void setForceRefreshInterval(int forceRefreshInterval) {
+        this.forceRefreshInterval = forceRefreshInterval;
+    }
+
+    public int getStateBatchWindow() {
+        return stateBatchWindow;
+    }
+
+    public void setStateBatchWindow(int stateBatchWindow) {
+        this.stateBatchWindow = stateBatchWindow;
+    }
+
+    public String getDecodeProfile() {
+        return decodeProfile;
+    }
+
+    public void setDecodeProfile(String decodeProfile) {
+        this.decodeProfile = decodeProfile;
+    }
+
     @Override
     public String toString() {
-        return String.format("MowerConfiguration [pollingInterval='%d', refreshStatusInterval='%d']", pollingInterval,
-                refreshStatusInterval);
+        return String.format("MowerConfiguration [pollingInterval='%d', refreshStatusInterval='%d', "
+                + "forceRefreshInterval='%d', stateBatchWindow='%d', decodeProfile='%s']",
+                pollingInterval, refreshStatusInterval, forceRefreshInterval, stateBatchWindow, decodeProfile);
     }
 }
@@ -16,6 +16,7 @@ import static org.openhab.binding.worxlandroid.internal.WorxLandroidBindingConst
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -54,6 +55,12 @@ public class MowerDiscoveryService extends AbstractDiscoveryService {
      */
     private static final int SEARCH_TIME = 20;
 
+    // max. number of single lookups between two full scans
+    private static final int MAX_LOOKUPS = 100;
+
+    // serial numbers already looked up after a message of an unknown mower
+    private final Set<String> lookedUpSerialNumbers = ConcurrentHashMap.newKeySet();
+
     public MowerDiscoveryService() {
         super(WorxLandroidBindingConstants.SUPPORTED_THING_TYPES, SEARCH_TIME);
     }
@@ -70,6 +77,34 @@ public class MowerDiscoveryService extends AbstractDiscoveryService {
         startScan();
     }
 
+    /**
+     * Discover a single mower, e.g. after a message of a mower without thing was received. Each serial number is
+     * looked up only once until the next full scan, at most {@link #MAX_LOOKUPS} serial numbers are looked up
+     * between two full scans.
+     *
+     * @param serialNumber
+     */
+    public void discoverMower(String serialNumber) {
+
+        if (bridgeHandler == null || lookedUpSerialNumbers.size() >= MAX_LOOKUPS
+                || !lookedUpSerialNumbers.add(serialNumber)) {
+            return;
+        }
+
+        try {
+            WorxLandroidWebApiImpl apiHandler = bridgeHandler.getWorxLandroidWebApiImpl();
+            ProductItemsResponse productItemsResponse = apiHandler.retrieveUserDevice(serialNumber);
+
+            JsonObject mower = productItemsResponse.getMowerDataById(serialNumber);
+            if (mower != null) {
+                thingDiscovered(bridgeHandler.getThing().getUID(), mower);
+            }
+        } catch (Exception e) {
+            // e.g. mower of another account
+            logger.debug("mower {} could not be discovered -> {}", serialNumber, e.getMessage());
+        }
+    }
+
     @Override
     public Set<ThingTypeUID> getSupportedThingTypes() {
         return WorxLandroidBindingConstants.SUPPORTED_THING_TYPES;
@@ -93,6 +128,7 @@ public class MowerDiscoveryService extends AbstractDiscoveryService {
             }
 
             ProductItemsResponse productItemsResponse = apiHandler.retrieveUserDevices();
+            lookedUpSerialNumbers.clear();
 
             if (productItemsResponse.getJsonResponse().isJsonArray()) {
                 JsonArray mowers = productItemsResponse.getJsonResponse().getAsJsonArray();
@@ -101,21 +137,7 @@ public class MowerDiscoveryService extends AbstractDiscoveryService {
                 if (mowers != null) {
                     for (JsonElement mowerElement : mowers) {
                         if (mowerElement.isJsonObject()) {
-                            JsonObject mower = mowerElement.getAsJsonObject();
-
-                            String serialNumber = mower.get("serial_number").getAsString();
-
-                            ThingUID thingUID = new ThingUID(THING_TYPE_MOWER, bridgeUID, serialNumber);
-
-                            Map<String, Object> properties = null;
-
-                            DiscoveryResult discoveryResult = DiscoveryResultBuilder.create(thingUID)
-                                    .withProperties(properties).withBridge(bridgeHandler.getThing().getUID())
-                                    .withLabel(mower.get("name").getAsString()).build();
-
-                            thingDiscovered(discoveryResult);
-
-                            logger.debug("Discovered a mower thing with ID '{}'", serialNumber);
+                            thingDiscovered(bridgeUID, mowerElement.getAsJsonObject());
                         }
                     }
                 }
@@ -125,6 +147,26 @@ public class MowerDiscoveryService extends AbstractDiscoveryService {
         }
     }
 
+    /**
+     * @param bridgeUID
+     * @param mower product item of mower
+     */
+    private void thingDiscovered(ThingUID bridgeUID, JsonObject mower) {
+
+        String serialNumber = mower.get("serial_number").getAsString();
+
+        ThingUID thingUID = new ThingUID(THING_TYPE_MOWER, bridgeUID, serialNumber);
+
+        Map<String, Object> properties = null;
+
+        DiscoveryResult discoveryResult = DiscoveryResultBuilder.create(thingUID).withProperties(properties)
+                .withBridge(bridgeUID).withLabel(mower.get("name").getAsString()).build();
+
+        thingDiscovered(discoveryResult);
+
+        logger.debug("Discovered a mower thing with ID '{}'", serialNumber);
+    }
+
     @Override
     protected void startBackgroundDiscovery() {
         startScan();
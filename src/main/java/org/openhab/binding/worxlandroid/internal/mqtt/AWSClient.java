@@ -12,43 +12,79 @@
  */
 package org.openhab.binding.worxlandroid.internal.mqtt;
 
-import java.security.KeyStore;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+import javax.net.ssl.SSLSocketFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.iot.client.AWSIotException;
 import com.amazonaws.services.iot.client.AWSIotMqttClient;
+import com.amazonaws.services.iot.client.AWSIotTimeoutException;
 
 /**
  * {@link AWSClient} AWS client
  *
+ * Reconnects are not done by the SDK but scheduled according to the {@link ReconnectPolicy}.
+ *
  * @author Nils - Initial contribution
  */
-public class AWSClient extends AWSIotMqttClient {
+public class AWSClient extends AWSIotMqttClient implements MqttTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AWSClient.class);
 
-    private static final int MAX_CONNECTION_RETRIES = 90000;
-    private static final int BASE_RETRY_DELAY = 30000;
+    private static final long CONNECT_TIMEOUT = 30000;
 
     private AWSClientCallback clientCallback;
     private String endpoint;
+    private ReconnectPolicy reconnectPolicy;
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean disconnectRequested;
+    private ScheduledFuture<?> reconnectJob;
 
     /**
      * @param clientEndpoint
      * @param clientId
-     * @param keyStore
-     * @param keyPassword
+     * @param socketFactory TLS socket factory with client certificate
+     * @param clienCallback
+     * @param reconnectPolicy
+     * @param scheduler scheduler for reconnect attempts
      */
-    public AWSClient(String clientEndpoint, String clientId, KeyStore keyStore, String keyPassword,
-            AWSClientCallback clienCallback) {
+    public AWSClient(String clientEndpoint, String clientId, SSLSocketFactory socketFactory,
+            AWSClientCallback clienCallback, ReconnectPolicy reconnectPolicy, ScheduledExecutorService scheduler) {
 
-        super(clientEndpoint, clientId, keyStore, keyPassword);
+        super(clientEndpoint, clientId, socketFactory);
 
         this.clientCallback = clienCallback;
         this.endpoint = clientEndpoint;
-        this.setBaseRetryDelay(BASE_RETRY_DELAY);
-        this.setMaxConnectionRetries(MAX_CONNECTION_RETRIES);
+        this.reconnectPolicy = reconnectPolicy;
+        this.scheduler = scheduler;
+
+        // reconnect is handled by scheduleReconnect()
+        this.setMaxConnectionRetries(0);
+    }
+
+    @Override
+    public void connect() throws AWSIotException {
+        disconnectRequested = false;
+        super.connect();
+    }
+
+    @Override
+    public void disconnect() throws AWSIotException {
+        disconnectRequested = true;
+        cancelReconnect();
+        super.disconnect();
     }
 
     @Override
     public void onConnectionSuccess() {
         super.onConnectionSuccess();
+        reconnectPolicy.reset();
         clientCallback.onAWSConnectionSuccess();
     }
 
@@ -62,8 +98,56 @@ public class AWSClient extends AWSIotMqttClient {
     public void onConnectionClosed() {
         super.onConnectionClosed();
         clientCallback.onAWSConnectionClosed();
+        if (!disconnectRequested) {
+            scheduleReconnect();
+        }
     }
 
+    /**
+     * Schedule next reconnect attempt, if none is pending.
+     */
+    private synchronized void scheduleReconnect() {
+
+        ScheduledFuture<?> job = reconnectJob;
+        if (job != null && !job.isDone()) {
+            return;
+        }
+
+        long delay = reconnectPolicy.nextDelay();
+        LOGGER.debug("reconnect attempt {} in {} ms", reconnectPolicy.getAttempt(), delay);
+        reconnectJob = scheduler.schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void cancelReconnect() {
+
+        ScheduledFuture<?> job = reconnectJob;
+        if (job != null) {
+            job.cancel(false);
+            reconnectJob = null;
+        }
+    }
+
+    private void reconnect() {
+
+        synchronized (this) {
+            // this job is running, allow scheduling of the next attempt
+            reconnectJob = null;
+        }
+
+        if (disconnectRequested) {
+            return;
+        }
+
+        try {
+            // non blocking, result is reported by the connection callbacks
+            super.connect(CONNECT_TIMEOUT, false);
+        } catch (AWSIotException | AWSIotTimeoutException e) {
+            LOGGER.debug("reconnect failed -> {}", e.getMessage());
+            scheduleReconnect();
+        }
+    }
+
+    @Override
     public String getEndpoint() {
         return endpoint;
     }
@@ -13,7 +13,6 @@
 package org.openhab.binding.worxlandroid.internal.mqtt;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
-import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidActionCodes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,10 +27,9 @@ import com.amazonaws.services.iot.client.AWSIotQos;
 @NonNullByDefault
 public class AWSMessage extends AWSIotMessage {
 
-    private final Logger logger = LoggerFactory.getLogger(AWSMessage.class);
+    private static final Logger LOGGER = LoggerFactory.getLogger(AWSMessage.class);
 
     public static final String EMPTY_PAYLOAD = "{}";
-    public static final String CMD_START = String.format("{\"cmd\":%d}", WorxLandroidActionCodes.START.getCode());
 
     /**
      * @param topic
@@ -42,21 +40,30 @@ public class AWSMessage extends AWSIotMessage {
         super(topic, qos, payload);
     }
 
+    /**
+     * @param topic
+     * @param qos
+     * @param payload encoded payload, not copied
+     */
+    public AWSMessage(String topic, AWSIotQos qos, byte[] payload) {
+        super(topic, qos, payload);
+    }
+
     @Override
     public void onSuccess() {
         // called when message publishing succeeded
-        logger.debug("AWS message publishing succeeded");
+        LOGGER.debug("AWS message publishing succeeded");
     }
 
     @Override
     public void onFailure() {
         // called when message publishing failed
-        logger.warn("AWS message publishing failed");
+        LOGGER.warn("AWS message publishing failed");
     }
 
     @Override
     public void onTimeout() {
         // called when message publishing timed out
-        logger.warn("AWS message publishing timed out");
+        LOGGER.warn("AWS message publishing timed out");
     }
 }
\ No newline at end of file
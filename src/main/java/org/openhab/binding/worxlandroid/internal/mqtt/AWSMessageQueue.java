@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link AWSMessageQueue} bounded per-topic queue for outbound messages which could not be published because the AWS
+ * connection is not available.
+ *
+ * Config messages ('sc', 'mz', 'mzv', 'rd') and polls ('{}') supersede older queued messages of the same kind,
+ * 'cmd' messages are kept in order.
+ *
+ * The last published config message and poll of each kind is recorded, so a message which is queued again after a
+ * failed publish does not overwrite a newer one which was published meanwhile.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class AWSMessageQueue {
+
+    private final Logger logger = LoggerFactory.getLogger(AWSMessageQueue.class);
+
+    private static final String[] COLLAPSIBLE_KEYS = { "sc", "mz", "mzv", "rd" };
+
+    private final int capacity;
+    private final long ttl;
+
+    // topic -> queued messages (in publish order)
+    private final Map<String, Deque<QueuedMessage>> queues = new LinkedHashMap<>();
+    // topic + collapse key -> last published message of that kind
+    private final Map<String, QueuedMessage> published = new HashMap<>();
+
+    /**
+     * @param capacity max. number of queued messages per topic
+     * @param ttl time to live of a queued message in milliseconds
+     */
+    public AWSMessageQueue(int capacity, long ttl) {
+        this.capacity = Math.max(1, capacity);
+        this.ttl = ttl;
+    }
+
+    /**
+     * Queue message for later publishing.
+     *
+     * @param message
+     */
+    public synchronized void offer(AWSMessage message) {
+
+        Deque<QueuedMessage> queue = getQueue(message.getTopic());
+
+        String collapseKey = getCollapseKey(message.getStringPayload());
+        if (collapseKey != null) {
+            // newer config replaces older config of same kind
+            Iterator<QueuedMessage> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                if (collapseKey.equals(iterator.next().collapseKey)) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        if (queue.size() >= capacity) {
+            QueuedMessage dropped = queue.pollFirst();
+            if (dropped != null) {
+                logger.warn("queue for topic {} is full, dropped message -> {}", message.getTopic(),
+                        dropped.message.getStringPayload());
+            }
+        }
+
+        queue.addLast(new QueuedMessage(message, collapseKey, System.currentTimeMillis()));
+        logger.debug("queued message for topic {} ({} queued) -> {}", message.getTopic(), queue.size(),
+                message.getStringPayload());
+    }
+
+    /**
+     * Queue a message again which was drained or published before but could not be delivered. The message keeps its
+     * original queue time, so it still expires after the time to live, and is put back at its original position
+     * before newer messages. It is discarded if a newer message of the same kind is queued or was published
+     * meanwhile.
+     *
+     * @param message
+     * @param queuedAt time the message was queued or published first
+     */
+    public synchronized void requeue(AWSMessage message, long queuedAt) {
+
+        if (queuedAt < System.currentTimeMillis() - ttl) {
+            logger.debug("discard expired message for topic {} -> {}", message.getTopic(), message.getStringPayload());
+            return;
+        }
+
+        Deque<QueuedMessage> queue = getQueue(message.getTopic());
+
+        String collapseKey = getCollapseKey(message.getStringPayload());
+        if (collapseKey != null) {
+            QueuedMessage publishedMessage = published.get(message.getTopic() + collapseKey);
+            if (publishedMessage != null && (publishedMessage.queuedAt > queuedAt
+                    || (publishedMessage.queuedAt == queuedAt && publishedMessage.message != message))) {
+                logger.debug("discard message superseded by published message for topic {} -> {}", message.getTopic(),
+                        message.getStringPayload());
+                return;
+            }
+            for (QueuedMessage queuedMessage : queue) {
+                if (collapseKey.equals(queuedMessage.collapseKey) && queuedMessage.queuedAt >= queuedAt) {
+                    logger.debug("discard superseded message for topic {} -> {}", message.getTopic(),
+                            message.getStringPayload());
+                    return;
+                }
+            }
+        }
+
+        // insert before all messages queued later
+        Deque<QueuedMessage> newer = new ArrayDeque<>();
+        QueuedMessage last;
+        while ((last = queue.peekLast()) != null && last.queuedAt >= queuedAt) {
+            newer.addFirst(queue.pollLast());
+        }
+        queue.addLast(new QueuedMessage(message, collapseKey, queuedAt));
+        queue.addAll(newer);
+
+        if (queue.size() > capacity) {
+            QueuedMessage dropped = queue.pollFirst();
+            if (dropped != null) {
+                logger.warn("queue for topic {} is full, dropped message -> {}", message.getTopic(),
+                        dropped.message.getStringPayload());
+            }
+        }
+    }
+
+    /**
+     * Record a published message, older messages of the same kind are not queued again.
+     *
+     * @param message
+     * @param queuedAt time the message was queued first, or published if it was never queued
+     */
+    public synchronized void recordPublished(AWSMessage message, long queuedAt) {
+
+        String collapseKey = getCollapseKey(message.getStringPayload());
+        if (collapseKey != null) {
+            String key = message.getTopic() + collapseKey;
+            QueuedMessage publishedMessage = published.get(key);
+            if (publishedMessage == null || publishedMessage.queuedAt <= queuedAt) {
+                published.put(key, new QueuedMessage(message, collapseKey, queuedAt));
+            }
+        }
+    }
+
+    /**
+     * Removes all queued messages. Expired messages are discarded.
+     *
+     * @return messages to publish in queued order (per topic)
+     */
+    public synchronized List<QueuedMessage> drain() {
+
+        List<QueuedMessage> messages = new ArrayList<>();
+        long expiredBefore = System.currentTimeMillis() - ttl;
+
+        for (Deque<QueuedMessage> queue : queues.values()) {
+            for (QueuedMessage queuedMessage : queue) {
+                if (queuedMessage.queuedAt < expiredBefore) {
+                    logger.debug("discard expired message for topic {} -> {}", queuedMessage.message.getTopic(),
+                            queuedMessage.message.getStringPayload());
+                } else {
+                    messages.add(queuedMessage);
+                }
+            }
+        }
+        queues.clear();
+
+        return messages;
+    }
+
+    private Deque<QueuedMessage> getQueue(String topic) {
+
+        Deque<QueuedMessage> queue = queues.get(topic);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            queues.put(topic, queue);
+        }
+        return queue;
+    }
+
+    /**
+     * @param topic
+     * @return true if messages for the topic are queued
+     */
+    public synchronized boolean hasQueued(String topic) {
+        Deque<QueuedMessage> queue = queues.get(topic);
+        return queue != null && !queue.isEmpty();
+    }
+
+    /**
+     * @return number of queued messages
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Deque<QueuedMessage> queue : queues.values()) {
+            size += queue.size();
+        }
+        return size;
+    }
+
+    /**
+     * Discard all queued messages.
+     */
+    public synchronized void clear() {
+        queues.clear();
+        published.clear();
+    }
+
+    /**
+     * A message is idempotent if publishing it twice has the same effect as publishing it once. Config messages and
+     * polls are idempotent, commands ('cmd') are not, e.g. a second 'start' after the mower returned home.
+     *
+     * @param message
+     * @return true if the message may be published again when its delivery is uncertain
+     */
+    public static boolean isIdempotent(AWSMessage message) {
+        return getCollapseKey(message.getStringPayload()) != null;
+    }
+
+    /**
+     * Returns key of a message which is superseded by a newer message with the same key.
+     *
+     * @param payload
+     * @return first member name of config messages, the payload itself for polls, null otherwise
+     */
+    static @Nullable String getCollapseKey(String payload) {
+
+        if (AWSMessage.EMPTY_PAYLOAD.equals(payload)) {
+            return payload;
+        }
+
+        // {"key":...
+        if (payload.startsWith("{\"")) {
+            int end = payload.indexOf('"', 2);
+            if (end > 2) {
+                String key = payload.substring(2, end);
+                for (String collapsibleKey : COLLAPSIBLE_KEYS) {
+                    if (collapsibleKey.equals(key)) {
+                        return key;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Queued message with metadata
+     */
+    public static class QueuedMessage {
+
+        private final AWSMessage message;
+        private final @Nullable String collapseKey;
+        private final long queuedAt;
+
+        QueuedMessage(AWSMessage message, @Nullable String collapseKey, long queuedAt) {
+            this.message = message;
+            this.collapseKey = collapseKey;
+            this.queuedAt = queuedAt;
+        }
+
+        public AWSMessage getMessage() {
+            return message;
+        }
+
+        /**
+         * @return time the message was queued first
+         */
+        public long getQueuedAt() {
+            return queuedAt;
+        }
+    }
+}
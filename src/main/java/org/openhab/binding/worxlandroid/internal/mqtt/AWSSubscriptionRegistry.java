@@ -0,0 +1,449 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.iot.client.AWSIotException;
+import com.amazonaws.services.iot.client.AWSIotMessage;
+import com.amazonaws.services.iot.client.AWSIotQos;
+
+/**
+ * {@link AWSSubscriptionRegistry} reference counted registry of all topic subscriptions of a bridge.
+ *
+ * A topic is subscribed once for the first callback and unsubscribed when the last callback is removed. Received
+ * messages are dispatched to all callbacks registered for the topic.
+ *
+ * With several MQTT connections each topic is subscribed on the connection its key (serial number of the mower) is
+ * assigned to by a {@link ConsistentHashRing}. If a connection is lost, {@link #resubscribeAll()} moves its topics to
+ * the remaining connections and back when it is connected again. A topic keeps its connection while the connection is
+ * lost, so topics which the client restored itself after reconnect (AWS) are not subscribed a second time. Topics are
+ * only moved if their connection stays lost for the move delay, a short flap does not move any topic.
+ *
+ * (Un)subscribing is done outside the monitor of the registry, so looking up the connection of a mower for publishing
+ * is not blocked by subscribe requests waiting for the broker.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class AWSSubscriptionRegistry {
+
+    private final Logger logger = LoggerFactory.getLogger(AWSSubscriptionRegistry.class);
+
+    // serializes (un)subscribing, the state below is guarded by this
+    private final Object subscribeLock = new Object();
+
+    private List<MqttTransport> clients = Collections.emptyList();
+    private boolean[] connected = new boolean[0];
+    // time the connection was lost, 0 if connected
+    private long[] disconnectedAt = new long[0];
+    // time in milliseconds a connection has to be lost before its topics are moved
+    private long moveDelay;
+    private ConsistentHashRing ring = new ConsistentHashRing(0);
+    private final @Nullable MqttMetrics metrics;
+    private volatile @Nullable MessageArchive archive;
+
+    // topic -> subscription
+    private final Map<String, Subscription> subscriptions = new LinkedHashMap<>();
+
+    public AWSSubscriptionRegistry() {
+        this(null);
+    }
+
+    /**
+     * @param metrics metrics to record received messages, may be null
+     */
+    public AWSSubscriptionRegistry(@Nullable MqttMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param clients connections used for (un)subscribing, all initially not connected
+     */
+    public synchronized void setClients(List<MqttTransport> clients) {
+        this.clients = new ArrayList<>(clients);
+        this.connected = new boolean[clients.size()];
+        this.disconnectedAt = new long[clients.size()];
+        this.ring = new ConsistentHashRing(clients.size());
+        for (Subscription subscription : subscriptions.values()) {
+            subscription.shard = -1;
+        }
+    }
+
+    /**
+     * @param moveDelay time in milliseconds a connection has to be lost before {@link #resubscribeAll()} moves its
+     *            topics to the remaining connections, 0 = immediately
+     */
+    public synchronized void setMoveDelay(long moveDelay) {
+        this.moveDelay = Math.max(0, moveDelay);
+    }
+
+    /**
+     * The topics of a lost connection keep their connection until {@link #resubscribeAll()} moves them.
+     *
+     * @param shard index of connection
+     * @param connected
+     */
+    public synchronized void setConnected(int shard, boolean connected) {
+
+        if (shard < 0 || shard >= this.connected.length) {
+            return;
+        }
+        if (!connected && this.connected[shard]) {
+            disconnectedAt[shard] = System.currentTimeMillis();
+        } else if (connected) {
+            disconnectedAt[shard] = 0;
+        }
+        this.connected[shard] = connected;
+    }
+
+    /**
+     * @return true if at least one connection is connected
+     */
+    public synchronized boolean isConnected() {
+        return getConnectedCount() > 0;
+    }
+
+    /**
+     * @return number of connected connections
+     */
+    public synchronized int getConnectedCount() {
+        int count = 0;
+        for (boolean shardConnected : connected) {
+            if (shardConnected) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param key serial number of mower
+     * @return connected connection of key, null if no connection is connected
+     */
+    public synchronized @Nullable MqttTransport getClient(String key) {
+        int shard = ring.getNode(key, connected);
+        return shard < 0 ? null : clients.get(shard);
+    }
+
+    /**
+     * Register callback for topic. Subscribes topic if this is the first callback.
+     *
+     * @param key serial number of mower
+     * @param topic
+     * @param callback
+     */
+    public void subscribe(String key, String topic, AWSMessageCallback callback) {
+
+        synchronized (subscribeLock) {
+
+            Subscription subscription;
+            int target;
+            synchronized (this) {
+                subscription = subscriptions.get(topic);
+                if (subscription == null) {
+                    subscription = new Subscription(key, topic, metrics);
+                    subscriptions.put(topic, subscription);
+                }
+
+                if (!subscription.callbacks.contains(callback)) {
+                    subscription.callbacks.add(callback);
+                }
+
+                if (subscription.shard >= 0) {
+                    return;
+                }
+                target = ring.getNode(key, connected);
+            }
+            subscribe(subscription, target);
+        }
+    }
+
+    /**
+     * Remove callback for topic. Unsubscribes topic if this was the last callback.
+     *
+     * @param topic
+     * @param callback
+     */
+    public void unsubscribe(String topic, AWSMessageCallback callback) {
+
+        synchronized (subscribeLock) {
+
+            int shard;
+            synchronized (this) {
+                Subscription subscription = subscriptions.get(topic);
+                if (subscription == null) {
+                    return;
+                }
+
+                subscription.callbacks.remove(callback);
+                if (!subscription.callbacks.isEmpty()) {
+                    return;
+                }
+
+                subscriptions.remove(topic);
+                shard = subscription.shard;
+            }
+
+            if (shard >= 0) {
+                unsubscribe(shard, topic);
+            }
+        }
+    }
+
+    /**
+     * Subscribes all registered topics which are not subscribed on the connection they are assigned to in one pass,
+     * e.g. after (re)connect or after a connection was lost. Topics which are already subscribed on their connection,
+     * e.g. restored by the client after reconnect, are not subscribed again. Topics of a connection which is lost for
+     * less than the move delay are kept on it.
+     *
+     * @return number of (re)subscribed topics
+     */
+    public int resubscribeAll() {
+
+        synchronized (subscribeLock) {
+
+            List<Subscription> currentSubscriptions;
+            List<MqttTransport> currentClients;
+            synchronized (this) {
+                currentSubscriptions = new ArrayList<>(subscriptions.values());
+                currentClients = clients;
+            }
+
+            List<Map<String, ?>> clientSubscriptions = new ArrayList<>();
+            for (MqttTransport client : currentClients) {
+                clientSubscriptions.add(client.getSubscriptions());
+            }
+
+            int count = 0;
+            long now = System.currentTimeMillis();
+            for (Subscription subscription : currentSubscriptions) {
+
+                int shard;
+                int target;
+                boolean subscribed;
+                synchronized (this) {
+                    shard = subscription.shard;
+                    if (shard >= 0 && shard < connected.length && !connected[shard]
+                            && now - disconnectedAt[shard] < moveDelay) {
+                        // connection may recover soon, keep topic
+                        continue;
+                    }
+                    target = ring.getNode(subscription.key, connected);
+                    if (target < 0 || target >= clientSubscriptions.size()) {
+                        continue;
+                    }
+                    // still subscribed on its connection, or restored by the client after reconnect
+                    subscribed = clientSubscriptions.get(target).containsKey(subscription.topic);
+                    if (subscribed) {
+                        subscription.shard = target;
+                    }
+                }
+
+                if (shard >= 0 && shard != target) {
+                    logger.debug("move topic {} from connection {} to {}", subscription.topic, shard, target);
+                    unsubscribe(shard, subscription.topic);
+                }
+                if (subscribed) {
+                    continue;
+                }
+
+                synchronized (this) {
+                    subscription.shard = -1;
+                }
+                if (subscribe(subscription, target)) {
+                    count++;
+                }
+            }
+
+            // remove subscriptions of the connections nobody is interested in anymore
+            for (int shard = 0; shard < currentClients.size(); shard++) {
+                List<String> staleTopics = new ArrayList<>();
+                synchronized (this) {
+                    if (shard >= connected.length || !connected[shard]) {
+                        continue;
+                    }
+                    for (String topic : clientSubscriptions.get(shard).keySet()) {
+                        Subscription subscription = subscriptions.get(topic);
+                        if (subscription == null || subscription.shard != shard) {
+                            staleTopics.add(topic);
+                        }
+                    }
+                }
+                for (String topic : staleTopics) {
+                    logger.debug("unsubscribe from stale topic -> {}", topic);
+                    unsubscribe(shard, topic);
+                }
+            }
+
+            logger.debug("resubscribed {} of {} topics", count, currentSubscriptions.size());
+            return count;
+        }
+    }
+
+    /**
+     * @return topic -> number of registered callbacks
+     */
+    public synchronized Map<String, Integer> getActiveSubscriptions() {
+
+        Map<String, Integer> activeSubscriptions = new LinkedHashMap<>();
+        for (Subscription subscription : subscriptions.values()) {
+            if (subscription.shard >= 0) {
+                activeSubscriptions.put(subscription.topic, subscription.callbacks.size());
+            }
+        }
+        return activeSubscriptions;
+    }
+
+    /**
+     * @param topic
+     * @return true if callbacks are registered for exactly this topic
+     */
+    public synchronized boolean hasSubscription(String topic) {
+        return subscriptions.containsKey(topic);
+    }
+
+    /**
+     * @param archive archive of received messages, null to stop archiving
+     */
+    public void setArchive(@Nullable MessageArchive archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Dispatch a message to the callbacks of its topic as if it was received, e.g. to replay archived messages. The
+     * message is not archived again.
+     *
+     * @param message
+     * @return false if the topic is not subscribed
+     */
+    public boolean dispatch(AWSIotMessage message) {
+
+        Subscription subscription;
+        synchronized (this) {
+            subscription = subscriptions.get(message.getTopic());
+        }
+        if (subscription == null) {
+            return false;
+        }
+        subscription.deliver(message);
+        return true;
+    }
+
+    /**
+     * Removes all subscriptions without unsubscribing.
+     */
+    public synchronized void clear() {
+        subscriptions.clear();
+    }
+
+    /**
+     * @param subscription
+     * @param shard connection to subscribe on
+     * @return true if subscribed successfully
+     */
+    private boolean subscribe(Subscription subscription, int shard) {
+
+        MqttTransport client;
+        synchronized (this) {
+            if (shard < 0 || shard >= connected.length || !connected[shard]) {
+                logger.debug("no connection, subscription to topic {} is pending", subscription.topic);
+                return false;
+            }
+            client = clients.get(shard);
+        }
+
+        try {
+            logger.debug("subscribe to topic on connection {} -> {}", shard, subscription.topic);
+            client.subscribe(subscription.awsTopic);
+            synchronized (this) {
+                subscription.shard = shard;
+            }
+            return true;
+        } catch (AWSIotException e) {
+            logger.warn("subscribe to topic {} failed, retry on reconnect -> {}", subscription.topic, e.getMessage());
+            return false;
+        }
+    }
+
+    private void unsubscribe(int shard, String topic) {
+
+        MqttTransport client;
+        synchronized (this) {
+            if (shard >= connected.length || !connected[shard]) {
+                return;
+            }
+            client = clients.get(shard);
+        }
+
+        try {
+            logger.debug("unsubscribe from topic on connection {} -> {}", shard, topic);
+            client.unsubscribe(topic);
+        } catch (AWSIotException e) {
+            logger.warn("unsubscribe from topic {} failed -> {}", topic, e.getMessage());
+        }
+    }
+
+    private static boolean isWildcard(String topic) {
+        return topic.indexOf('+') >= 0 || topic.indexOf('#') >= 0;
+    }
+
+    /**
+     * Subscription of a topic with all callbacks
+     */
+    private class Subscription implements AWSMessageCallback {
+
+        private final String key;
+        private final String topic;
+        private final AWSTopic awsTopic;
+        private final List<AWSMessageCallback> callbacks = new CopyOnWriteArrayList<>();
+        // connection the topic is subscribed on (kept while the connection is lost), -1 if not subscribed (guarded by
+        // the registry)
+        private int shard = -1;
+
+        Subscription(String key, String topic, @Nullable MqttMetrics metrics) {
+            this.key = key;
+            this.topic = topic;
+            // wildcard subscriptions only observe, the messages of a mower are recorded by its own subscription
+            this.awsTopic = new AWSTopic(topic, AWSIotQos.QOS0, this, isWildcard(topic) ? null : metrics);
+        }
+
+        @Override
+        public void processMessage(@Nullable AWSIotMessage message) {
+
+            MessageArchive archive = AWSSubscriptionRegistry.this.archive;
+            // wildcard subscriptions only observe, the messages of a mower are archived by its own subscription
+            if (archive != null && message != null && !isWildcard(topic)) {
+                byte[] payload = message.getPayload();
+                archive.appendInbound(key, message.getTopic(), payload == null ? new byte[0] : payload);
+            }
+            deliver(message);
+        }
+
+        void deliver(@Nullable AWSIotMessage message) {
+            for (AWSMessageCallback callback : callbacks) {
+                callback.processMessage(message);
+            }
+        }
+    }
+}
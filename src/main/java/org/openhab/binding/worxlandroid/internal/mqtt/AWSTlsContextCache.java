@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link AWSTlsContextCache} caches the parsed AWS client certificate and the {@link SSLContext} built from it per
+ * certificate fingerprint.
+ *
+ * Reusing the {@link SSLContext} keeps its TLS session cache, so reconnects and bridge re-initializations resume the
+ * TLS session instead of doing a full handshake.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class AWSTlsContextCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AWSTlsContextCache.class);
+
+    private static final String TLS_VERSION = "TLSv1.2";
+    private static final int MAX_ENTRIES = 4;
+    private static final int SESSION_CACHE_SIZE = 16;
+    private static final int SESSION_TIMEOUT = 24 * 60 * 60;
+
+    // fingerprint -> ssl context, least recently used first
+    private static final Map<String, SSLContext> CONTEXTS = new LinkedHashMap<String, SSLContext>(MAX_ENTRIES, 0.75f,
+            true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SSLContext> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private AWSTlsContextCache() {
+    }
+
+    /**
+     * Returns the cached {@link SSLContext} of the certificate or creates a new one.
+     *
+     * @param pkcs12 Base64 encoded PKCS12 key store
+     * @param password password of key store
+     * @return
+     * @throws GeneralSecurityException
+     * @throws IOException
+     */
+    public static SSLContext getSSLContext(String pkcs12, String password)
+            throws GeneralSecurityException, IOException {
+
+        String fingerprint = fingerprint(pkcs12);
+
+        synchronized (CONTEXTS) {
+            SSLContext sslContext = CONTEXTS.get(fingerprint);
+            if (sslContext != null) {
+                LOGGER.debug("reuse TLS context of AWS certificate {}", fingerprint);
+                return sslContext;
+            }
+
+            byte[] p12 = Base64.getDecoder().decode(pkcs12.getBytes(StandardCharsets.US_ASCII));
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(new ByteArrayInputStream(p12), password.toCharArray());
+
+            KeyManagerFactory keyManagerFactory = KeyManagerFactory
+                    .getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, password.toCharArray());
+
+            sslContext = SSLContext.getInstance(TLS_VERSION);
+            sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+
+            SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+            if (sessionContext != null) {
+                sessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+                sessionContext.setSessionTimeout(SESSION_TIMEOUT);
+            }
+
+            CONTEXTS.put(fingerprint, sslContext);
+            LOGGER.debug("AWS certificate {} loaded to TLS context", fingerprint);
+            return sslContext;
+        }
+    }
+
+    /**
+     * @param pkcs12
+     * @return SHA-256 of the encoded key store as hex string
+     * @throws GeneralSecurityException
+     */
+    private static String fingerprint(String pkcs12) throws GeneralSecurityException {
+
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(pkcs12.getBytes(StandardCharsets.US_ASCII));
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -29,8 +29,9 @@ import com.amazonaws.services.iot.client.AWSIotTopic;
 @NonNullByDefault
 public class AWSTopic extends AWSIotTopic {
 
-    private final Logger logger = LoggerFactory.getLogger(AWSTopic.class);
+    private static final Logger LOGGER = LoggerFactory.getLogger(AWSTopic.class);
     private AWSMessageCallback callback;
+    private @Nullable MqttMetrics metrics;
 
     /**
      * @param topic
@@ -38,18 +39,37 @@ public class AWSTopic extends AWSIotTopic {
      * @param awsMessageCallback
      */
     public AWSTopic(String topic, AWSIotQos qos, AWSMessageCallback awsMessageCallback) {
+        this(topic, qos, awsMessageCallback, null);
+    }
+
+    /**
+     * @param topic
+     * @param qos
+     * @param awsMessageCallback
+     * @param metrics metrics to record received messages, may be null
+     */
+    public AWSTopic(String topic, AWSIotQos qos, AWSMessageCallback awsMessageCallback,
+            @Nullable MqttMetrics metrics) {
         super(topic, qos);
         callback = awsMessageCallback;
+        this.metrics = metrics;
     }
 
     @Override
     public void onMessage(@Nullable AWSIotMessage message) {
 
         if (message == null) {
-            logger.warn("onMessage: message == null");
+            LOGGER.warn("onMessage: message == null");
             return;
         }
-        logger.debug("onMessage: {}", message.getStringPayload());
+        MqttMetrics metrics = this.metrics;
+        if (metrics != null) {
+            byte[] payload = message.getPayload();
+            metrics.recordInbound(getTopic(), payload == null ? 0 : payload.length);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("onMessage: {}", message.getStringPayload());
+        }
         callback.processMessage(message);
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link ArchivedMessage} raw MQTT message read from a {@link MessageArchive} segment.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class ArchivedMessage {
+
+    private final long timestamp;
+    private final boolean inbound;
+    private final String serialNumber;
+    private final String topic;
+    private final byte[] payload;
+
+    /**
+     * @param timestamp time of reception/publishing in milliseconds since epoch
+     * @param inbound true if received, false if published
+     * @param serialNumber serial number of mower
+     * @param topic
+     * @param payload
+     */
+    public ArchivedMessage(long timestamp, boolean inbound, String serialNumber, String topic, byte[] payload) {
+        this.timestamp = timestamp;
+        this.inbound = inbound;
+        this.serialNumber = serialNumber;
+        this.topic = topic;
+        this.payload = payload;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public boolean isInbound() {
+        return inbound;
+    }
+
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ArchivedMessage [timestamp='%d', inbound='%b', serialNumber='%s', topic='%s', payload='%s']",
+                timestamp, inbound, serialNumber, topic, new String(payload, StandardCharsets.UTF_8));
+    }
+}
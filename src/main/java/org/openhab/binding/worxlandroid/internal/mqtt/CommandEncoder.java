@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidActionCodes;
+import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidDayCodes;
+import org.openhab.binding.worxlandroid.internal.vo.Mower;
+import org.openhab.binding.worxlandroid.internal.vo.ScheduledDay;
+
+/**
+ * {@link CommandEncoder} writes command payloads ('cmd', 'sc', 'mz', 'mzv', 'rd') directly into a reusable byte
+ * buffer without building a json tree.
+ *
+ * The returned payload is an exact sized copy of the buffer, because the AWS client keeps a reference to the payload
+ * until the message is published. Constant payloads are cached and must not be modified.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class CommandEncoder {
+
+    public static final byte[] EMPTY_PAYLOAD = AWSMessage.EMPTY_PAYLOAD.getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] CMD_PREFIX = ascii("{\"cmd\":");
+    private static final byte[] RD_PREFIX = ascii("{\"rd\":");
+    private static final byte[] MZ_PREFIX = ascii("{\"mz\":[");
+    private static final byte[] MZV_PREFIX = ascii("{\"mzv\":[");
+    private static final byte[] SC_PREFIX = ascii("{\"sc\":{\"p\":");
+    private static final byte[] SC_DAYS = ascii(",\"d\":[");
+
+    private static final int ZONE_METER_COUNT = 4;
+    private static final int ALLOCATION_COUNT = 10;
+
+    // cached payloads for all action codes
+    private static final byte[][] ACTION_PAYLOADS;
+
+    static {
+        int maxCode = 0;
+        for (WorxLandroidActionCodes actionCode : WorxLandroidActionCodes.values()) {
+            maxCode = Math.max(maxCode, actionCode.getCode());
+        }
+        ACTION_PAYLOADS = new byte[maxCode + 1][];
+        for (WorxLandroidActionCodes actionCode : WorxLandroidActionCodes.values()) {
+            if (actionCode.getCode() >= 0) {
+                ACTION_PAYLOADS[actionCode.getCode()] = ascii(String.format("{\"cmd\":%d}", actionCode.getCode()));
+            }
+        }
+    }
+
+    private byte[] buffer = new byte[256];
+    private int length;
+
+    /**
+     * Returns cached payload of an action command: {"cmd":1}
+     *
+     * @param actionCode
+     * @return
+     */
+    public static byte[] encodeCommand(WorxLandroidActionCodes actionCode) {
+
+        int code = actionCode.getCode();
+        if (code >= 0 && code < ACTION_PAYLOADS.length && ACTION_PAYLOADS[code] != null) {
+            return ACTION_PAYLOADS[code];
+        }
+
+        CommandEncoder encoder = new CommandEncoder();
+        encoder.put(CMD_PREFIX).putInt(code).put('}');
+        return encoder.toPayload();
+    }
+
+    /**
+     * Encodes rain delay: {"rd":30}
+     *
+     * @param rainDelay
+     * @return
+     */
+    public synchronized byte[] encodeRainDelay(int rainDelay) {
+
+        reset();
+        put(RD_PREFIX).putInt(rainDelay).put('}');
+        return toPayload();
+    }
+
+    /**
+     * Encodes zone meters: {"mz":[10,20,0,0]}
+     *
+     * @param mower
+     * @return
+     */
+    public synchronized byte[] encodeZoneMeters(Mower mower) {
+
+        reset();
+        put(MZ_PREFIX);
+        for (int zoneIndex = 0; zoneIndex < ZONE_METER_COUNT; zoneIndex++) {
+            if (zoneIndex > 0) {
+                put(',');
+            }
+            putInt(mower.getZoneMeter(zoneIndex));
+        }
+        put(']').put('}');
+        return toPayload();
+    }
+
+    /**
+     * Encodes zone allocations: {"mzv":[0,0,1,1,2,2,3,3,0,0]}
+     *
+     * @param mower
+     * @return
+     */
+    public synchronized byte[] encodeAllocations(Mower mower) {
+
+        reset();
+        put(MZV_PREFIX);
+        for (int allocationIndex = 0; allocationIndex < ALLOCATION_COUNT; allocationIndex++) {
+            if (allocationIndex > 0) {
+                put(',');
+            }
+            putInt(mower.getAllocation(allocationIndex));
+        }
+        put(']').put('}');
+        return toPayload();
+    }
+
+    /**
+     * Encodes schedule: {"sc":{"p":0,"d":[["10:00",60,0],...]}}
+     *
+     * @param mower
+     * @return
+     */
+    public synchronized byte[] encodeSchedule(Mower mower) {
+
+        reset();
+        put(SC_PREFIX).putInt(mower.getTimeExtension()).put(SC_DAYS);
+
+        boolean first = true;
+        for (WorxLandroidDayCodes dayCode : WorxLandroidDayCodes.values()) {
+
+            ScheduledDay scheduledDay = mower.getScheduledDay(dayCode);
+            if (!first) {
+                put(',');
+            }
+            first = false;
+
+            put('[').put('"').putInt(scheduledDay.getHour()).put(':');
+            if (scheduledDay.getMinutes() < 10) {
+                put('0');
+            }
+            putInt(scheduledDay.getMinutes()).put('"').put(',');
+            putInt(scheduledDay.getDuration()).put(',');
+            put(scheduledDay.isEdgecut() ? '1' : '0').put(']');
+        }
+        put(']').put('}').put('}');
+        return toPayload();
+    }
+
+    private void reset() {
+        length = 0;
+    }
+
+    private CommandEncoder put(char c) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) c;
+        return this;
+    }
+
+    private CommandEncoder put(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+        return this;
+    }
+
+    /**
+     * Writes decimal digits of value without creating a string.
+     *
+     * @param value
+     * @return
+     */
+    private CommandEncoder putInt(int value) {
+
+        if (value == Integer.MIN_VALUE) {
+            return put(ascii(String.valueOf(value)));
+        }
+
+        ensureCapacity(11);
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+
+        int start = length;
+        do {
+            buffer[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+
+        // digits were written in reverse order
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+        return this;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+        }
+    }
+
+    private byte[] toPayload() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
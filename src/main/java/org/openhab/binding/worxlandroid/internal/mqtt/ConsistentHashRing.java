@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@link ConsistentHashRing} assigns keys (mower serial numbers) to a fixed number of nodes (MQTT connections).
+ *
+ * Each node is placed on the ring with several virtual nodes. A key belongs to the first available node clockwise
+ * from its hash, so if a node is not available only its keys move to the other nodes, and they move back when the
+ * node is available again.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class ConsistentHashRing {
+
+    private static final int VIRTUAL_NODES = 64;
+
+    private final TreeMap<Long, Integer> ring = new TreeMap<>();
+    private final int nodes;
+
+    /**
+     * @param nodes number of nodes
+     */
+    public ConsistentHashRing(int nodes) {
+        this.nodes = nodes;
+        for (int node = 0; node < nodes; node++) {
+            for (int virtualNode = 0; virtualNode < VIRTUAL_NODES; virtualNode++) {
+                ring.put(hash(node + "#" + virtualNode), node);
+            }
+        }
+    }
+
+    /**
+     * @param key
+     * @return node of key, -1 if there are no nodes
+     */
+    public int getNode(String key) {
+        return getNode(key, null);
+    }
+
+    /**
+     * @param key
+     * @param available available nodes, null if all nodes are available
+     * @return first available node of key, -1 if no node is available
+     */
+    public int getNode(String key, boolean @Nullable [] available) {
+
+        if (nodes == 0) {
+            return -1;
+        }
+
+        long hash = hash(key);
+        for (Map.Entry<Long, Integer> entry : ring.tailMap(hash, true).entrySet()) {
+            if (available == null || available[entry.getValue()]) {
+                return entry.getValue();
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : ring.headMap(hash, false).entrySet()) {
+            if (available == null || available[entry.getValue()]) {
+                return entry.getValue();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return number of nodes
+     */
+    public int size() {
+        return nodes;
+    }
+
+    /**
+     * 64 bit FNV-1a with final avalanche mixing, so similar serial numbers spread over the ring.
+     *
+     * @param key
+     * @return
+     */
+    private static long hash(String key) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link DecodeProfile} defines which payload sections of a status message are decoded, see
+ * {@link MowerStateDecoder#setSkippedSections(int)}.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public enum DecodeProfile {
+
+    /** sections are skipped if none of their channels is linked */
+    AUTO,
+    /** orientation, statistics, schedule, zone meters and allocations are always skipped */
+    MINIMAL,
+    /** all sections are decoded */
+    FULL;
+
+    /**
+     * @param value config value, e.g. "auto"
+     * @return profile of the config value, AUTO if empty or unknown
+     */
+    public static DecodeProfile fromConfig(@Nullable String value) {
+
+        if (value != null) {
+            for (DecodeProfile profile : values()) {
+                if (profile.name().equalsIgnoreCase(value.trim())) {
+                    return profile;
+                }
+            }
+        }
+        return AUTO;
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import com.amazonaws.services.iot.client.AWSIotMessage;
+
+/**
+ * {@link InflightMessage} wraps an {@link AWSMessage} for a single QoS 1 publish. It holds a slot of the
+ * {@link InflightWindow} until the broker acknowledged the message (or publishing failed or timed out) and reports the
+ * PUBACK latency.
+ *
+ * A new instance is used for each publish, so the same {@link AWSMessage} (e.g. the poll message) can be published
+ * again while a previous publish is still in flight.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class InflightMessage extends AWSIotMessage {
+
+    private final AWSMessage message;
+    private final InflightWindow window;
+    private final PublishListener listener;
+
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final long publishTime = System.nanoTime();
+    // time the message was queued first (or published, if never queued), kept if it is queued again
+    private final long queuedAt;
+
+    /**
+     * @param message
+     * @param queuedAt time the message was queued first, or published if it was never queued
+     * @param window slot is already taken by the caller
+     * @param listener
+     */
+    public InflightMessage(AWSMessage message, long queuedAt, InflightWindow window, PublishListener listener) {
+        super(message.getTopic(), message.getQos(), message.getPayload());
+        this.message = message;
+        this.queuedAt = queuedAt;
+        this.window = window;
+        this.listener = listener;
+    }
+
+    @Override
+    public void onSuccess() {
+        if (complete()) {
+            listener.onPublishSuccess(message, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - publishTime));
+        }
+    }
+
+    @Override
+    public void onFailure() {
+        if (complete()) {
+            listener.onPublishFailure(message, queuedAt);
+        }
+    }
+
+    @Override
+    public void onTimeout() {
+        if (complete()) {
+            listener.onPublishFailure(message, queuedAt);
+        }
+    }
+
+    /**
+     * Free the slot of the window without notification, if the message could not be handed over to the client.
+     */
+    public void abort() {
+        complete();
+    }
+
+    /**
+     * @return false if already completed before
+     */
+    private boolean complete() {
+        if (completed.compareAndSet(false, true)) {
+            window.release();
+            return true;
+        }
+        return false;
+    }
+}
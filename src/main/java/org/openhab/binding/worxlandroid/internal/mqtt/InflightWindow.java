@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.util.concurrent.Semaphore;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link InflightWindow} bounds the number of QoS 1 messages of one MQTT connection which are published but not yet
+ * acknowledged by the broker. Messages are pipelined up to the window size instead of waiting for each PUBACK.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class InflightWindow {
+
+    private final int size;
+    private final Semaphore permits;
+
+    /**
+     * @param size max. number of unacknowledged messages
+     */
+    public InflightWindow(int size) {
+        this.size = Math.max(1, size);
+        this.permits = new Semaphore(this.size);
+    }
+
+    /**
+     * Take a slot of the window (non blocking).
+     *
+     * @return false if the window is full
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    /**
+     * Free a slot after the message was acknowledged, failed or timed out.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * @return number of unacknowledged messages
+     */
+    public int getInflight() {
+        return size - permits.availablePermits();
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link LagStats} keeps the latest lag samples in a ring buffer and computes percentiles from them.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class LagStats {
+
+    private static final int SIZE = 256;
+
+    private final long[] samples = new long[SIZE];
+    private int count;
+    private int next;
+
+    /**
+     * @param lag lag in milliseconds
+     */
+    public synchronized void record(long lag) {
+        samples[next] = lag;
+        next = (next + 1) % SIZE;
+        if (count < SIZE) {
+            count++;
+        }
+    }
+
+    /**
+     * @param percentile 0..100
+     * @return lag in milliseconds, 0 if no samples
+     */
+    public long getPercentile(double percentile) {
+        return getPercentiles(percentile)[0];
+    }
+
+    /**
+     * Computes several percentiles with a single sort.
+     *
+     * @param percentiles 0..100
+     * @return lag in milliseconds for each percentile, 0 if no samples
+     */
+    public long[] getPercentiles(double... percentiles) {
+
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, count);
+        }
+
+        long[] result = new long[percentiles.length];
+        if (sorted.length == 0) {
+            return result;
+        }
+
+        Arrays.sort(sorted);
+        for (int i = 0; i < percentiles.length; i++) {
+            int index = (int) Math.ceil(percentiles[i] / 100.0 * sorted.length) - 1;
+            result[i] = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+        return result;
+    }
+
+    /**
+     * @return number of samples
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+}
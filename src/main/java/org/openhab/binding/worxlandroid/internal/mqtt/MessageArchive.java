@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MessageArchive} append-only archive of raw inbound and outbound MQTT payloads of a bridge.
+ *
+ * Messages are written to a memory-mapped segment file of fixed size, so appending is a copy into the mapped buffer
+ * without a system call. When a segment is full the next one is started and the oldest segments beyond the
+ * configured number are deleted.
+ *
+ * Segment layout: int magic, then records of int length (0 = end of segment), long timestamp, byte direction,
+ * short length + serial number (UTF-8), short length + topic (UTF-8) and the payload.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class MessageArchive {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageArchive.class);
+
+    private static final int MAGIC = 0x574C4131; // WLA1
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".bin";
+
+    private static final byte INBOUND = 0;
+    private static final byte OUTBOUND = 1;
+
+    // length, timestamp, direction, length of serial number and topic
+    private static final int RECORD_OVERHEAD = 4 + 8 + 1 + 2 + 2;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    private @Nullable MappedByteBuffer buffer;
+    private long sequence;
+
+    /**
+     * @param directory directory of segment files, created if missing
+     * @param segmentSize size of a segment in bytes, max. {@link Integer#MAX_VALUE} as a segment is mapped at once
+     * @param maxSegments max. number of segments kept
+     * @throws IOException
+     */
+    public MessageArchive(Path directory, int segmentSize, int maxSegments) throws IOException {
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(1, maxSegments);
+
+        Files.createDirectories(directory);
+        List<Path> segments = getSegments();
+        // continue after the last segment, existing segments are kept for replay up to maxSegments
+        sequence = segments.isEmpty() ? 0 : parseSequence(segments.get(segments.size() - 1)) + 1;
+        openSegment();
+        deleteOldSegments();
+    }
+
+    /**
+     * Archive a received message.
+     *
+     * @param serialNumber
+     * @param topic
+     * @param payload
+     */
+    public void appendInbound(String serialNumber, String topic, byte[] payload) {
+        append(INBOUND, serialNumber, topic, payload);
+    }
+
+    /**
+     * Archive a published message.
+     *
+     * @param serialNumber
+     * @param topic
+     * @param payload
+     */
+    public void appendOutbound(String serialNumber, String topic, byte[] payload) {
+        append(OUTBOUND, serialNumber, topic, payload);
+    }
+
+    private synchronized void append(byte direction, String serialNumber, String topic, byte[] payload) {
+
+        MappedByteBuffer buffer = this.buffer;
+        if (buffer == null) {
+            return;
+        }
+
+        byte[] serialBytes = serialNumber.getBytes(StandardCharsets.UTF_8);
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        int recordSize = RECORD_OVERHEAD + serialBytes.length + topicBytes.length + payload.length;
+
+        // a record has to fit into an empty segment, including the end marker
+        if (recordSize + 8 > segmentSize) {
+            LOGGER.debug("message of topic {} too large for archive segment, skipped", topic);
+            return;
+        }
+
+        if (buffer.remaining() < recordSize + 4) {
+            buffer = rotate();
+            if (buffer == null) {
+                return;
+            }
+        }
+
+        buffer.putInt(recordSize - 4);
+        buffer.putLong(System.currentTimeMillis());
+        buffer.put(direction);
+        buffer.putShort((short) serialBytes.length);
+        buffer.put(serialBytes);
+        buffer.putShort((short) topicBytes.length);
+        buffer.put(topicBytes);
+        buffer.put(payload);
+    }
+
+    /**
+     * Flush and close the current segment.
+     */
+    public synchronized void close() {
+
+        MappedByteBuffer buffer = this.buffer;
+        if (buffer != null) {
+            buffer.force();
+            // the mapping is released by the garbage collector
+            this.buffer = null;
+        }
+    }
+
+    /**
+     * @return directory of segment files
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return segment files, oldest first
+     * @throws IOException
+     */
+    public List<Path> getSegments() throws IOException {
+        return listSegments(directory);
+    }
+
+    /**
+     * @param directory
+     * @return segment files of directory, oldest first
+     * @throws IOException
+     */
+    public static List<Path> listSegments(Path directory) throws IOException {
+
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        }
+        // fixed width sequence numbers sort by name
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Read all messages of a segment, the current segment may be read while it is written.
+     *
+     * @param segment
+     * @return messages in archive order
+     * @throws IOException if the file is not a segment
+     */
+    public static List<ArchivedMessage> read(Path segment) throws IOException {
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < 4 || buffer.getInt() != MAGIC) {
+            throw new IOException("not an archive segment: " + segment);
+        }
+
+        List<ArchivedMessage> messages = new ArrayList<>();
+        try {
+            while (buffer.remaining() >= 4) {
+
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+
+                int start = buffer.position();
+                long timestamp = buffer.getLong();
+                boolean inbound = buffer.get() == INBOUND;
+                String serialNumber = readString(buffer);
+                String topic = readString(buffer);
+                byte[] payload = new byte[length - (buffer.position() - start)];
+                buffer.get(payload);
+
+                messages.add(new ArchivedMessage(timestamp, inbound, serialNumber, topic, payload));
+            }
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            LOGGER.debug("truncated record in segment {}", segment);
+        }
+        return messages;
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private @Nullable MappedByteBuffer rotate() {
+
+        MappedByteBuffer buffer = this.buffer;
+        if (buffer != null) {
+            buffer.force();
+        }
+
+        try {
+            openSegment();
+            deleteOldSegments();
+        } catch (IOException e) {
+            LOGGER.warn("archive segment could not be created, archive disabled -> {}", e.getMessage());
+            this.buffer = null;
+        }
+        return this.buffer;
+    }
+
+    private void openSegment() throws IOException {
+
+        Path segment = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, sequence++, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, segmentSize);
+            buffer.putInt(MAGIC);
+            this.buffer = buffer;
+        }
+        LOGGER.debug("archive segment {} opened", segment);
+    }
+
+    private void deleteOldSegments() throws IOException {
+
+        List<Path> segments = getSegments();
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private static long parseSequence(Path segment) {
+
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MowerClock} decodes the timestamp of a mower (cfg/dt + cfg/tm, local time of the mower) and tracks the
+ * difference between the mower's clock and the host clock (drift).
+ *
+ * The drift is the largest difference between mower timestamp and receive time within the last 24 hours, i.e. the
+ * difference of the message with the shortest transport time. It is not the pure clock skew: mower timestamps can
+ * not be told apart from transport delays, so the drift is the clock skew minus the shortest transport and processing
+ * time of the last 24 hours.
+ *
+ * The lag of a message is the receive time minus the mower timestamp corrected by the drift, so it is the transport
+ * and processing time beyond the shortest one of the last 24 hours. A delay which grows over minutes or hours thus
+ * shows up as lag instead of being absorbed by the drift.
+ *
+ * Mower timestamps have a resolution of one second, so drift and lag are only accurate to one second, lags below
+ * 1000 ms are within this resolution.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class MowerClock {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MowerClock.class);
+
+    // the drift is the largest offset of DRIFT_BUCKETS buckets of DRIFT_BUCKET_DURATION each
+    private static final int DRIFT_BUCKETS = 24;
+    private static final long DRIFT_BUCKET_DURATION = TimeUnit.HOURS.toMillis(1);
+
+    private volatile ZoneId zoneId = ZoneId.systemDefault();
+
+    private @Nullable ZonedDateTime dateTime;
+    private long lag = -1;
+
+    // largest offset per bucket and the number of the bucket since epoch, Long.MIN_VALUE if unused
+    private final long[] bucketOffsets = new long[DRIFT_BUCKETS];
+    private final long[] bucketNumbers = new long[DRIFT_BUCKETS];
+    private boolean hasDrift;
+    private long drift;
+
+    public MowerClock() {
+        Arrays.fill(bucketNumbers, Long.MIN_VALUE);
+    }
+
+    /**
+     * @param timeZone 'time_zone' property of the mower, e.g. "Europe/Berlin"
+     * @return zone of the mower, zone of the host if unknown
+     */
+    public static ZoneId resolveZone(@Nullable String timeZone) {
+
+        if (timeZone != null && !timeZone.isEmpty()) {
+            try {
+                return ZoneId.of(timeZone);
+            } catch (DateTimeException e) {
+                LOGGER.warn("unknown time zone '{}' of mower, using {}", timeZone, ZoneId.systemDefault());
+            }
+        }
+        return ZoneId.systemDefault();
+    }
+
+    /**
+     * @param zoneId zone of the mower
+     */
+    public void setZone(ZoneId zoneId) {
+        this.zoneId = zoneId;
+    }
+
+    public ZoneId getZone() {
+        return zoneId;
+    }
+
+    /**
+     * @param date e.g. "13/03/2020"
+     * @param time e.g. "17:09:34"
+     * @param receivedAt receive time of the message in epoch milliseconds, 0 if unknown (the drift is not updated)
+     * @return false if date or time is invalid
+     */
+    public boolean update(String date, String time, long receivedAt) {
+
+        lag = -1;
+
+        // dd/MM/yyyy HH:mm:ss
+        if (date.length() != 10 || time.length() != 8 || date.charAt(2) != '/' || date.charAt(5) != '/'
+                || time.charAt(2) != ':' || time.charAt(5) != ':') {
+            LOGGER.debug("invalid mower timestamp '{} {}'", date, time);
+            return false;
+        }
+
+        int day = parse(date, 0, 2);
+        int month = parse(date, 3, 5);
+        int year = parse(date, 6, 10);
+        int hour = parse(time, 0, 2);
+        int minute = parse(time, 3, 5);
+        int second = parse(time, 6, 8);
+
+        ZonedDateTime zonedDateTime;
+        try {
+            zonedDateTime = ZonedDateTime.of(LocalDateTime.of(year, month, day, hour, minute, second), zoneId);
+        } catch (DateTimeException e) {
+            LOGGER.debug("invalid mower timestamp '{} {}'", date, time);
+            return false;
+        }
+        dateTime = zonedDateTime;
+
+        if (receivedAt > 0) {
+            long offset = zonedDateTime.toEpochSecond() * 1000 - receivedAt;
+
+            long bucketNumber = receivedAt / DRIFT_BUCKET_DURATION;
+            int bucket = (int) (bucketNumber % DRIFT_BUCKETS);
+            if (bucketNumbers[bucket] != bucketNumber) {
+                bucketNumbers[bucket] = bucketNumber;
+                bucketOffsets[bucket] = offset;
+            } else {
+                bucketOffsets[bucket] = Math.max(bucketOffsets[bucket], offset);
+            }
+
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < DRIFT_BUCKETS; i++) {
+                if (bucketNumbers[i] > bucketNumber - DRIFT_BUCKETS) {
+                    max = Math.max(max, bucketOffsets[i]);
+                }
+            }
+            drift = max;
+            hasDrift = true;
+            lag = drift - offset;
+        }
+        return true;
+    }
+
+    /**
+     * @param text
+     * @param start
+     * @param end
+     * @return digits between start and end, -1 if not a number
+     */
+    private static int parse(String text, int start, int end) {
+
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @return mower timestamp of the last update, null if none
+     */
+    public @Nullable ZonedDateTime getDateTime() {
+        return dateTime;
+    }
+
+    /**
+     * @return clock skew minus the shortest transport time in milliseconds, positive if the mower clock is ahead of the
+     *         host clock by more than the transport time
+     */
+    public long getDrift() {
+        return drift;
+    }
+
+    /**
+     * @return true if the drift was calculated from at least one message
+     */
+    public boolean hasDrift() {
+        return hasDrift;
+    }
+
+    /**
+     * @return lag of the last update in milliseconds corrected by the drift, resolution one second, -1 if unknown
+     */
+    public long getLag() {
+        return lag;
+    }
+}
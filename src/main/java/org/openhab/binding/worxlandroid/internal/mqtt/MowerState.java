@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link MowerState} holds the values of a decoded mower status message in primitive fields. It is filled by the
+ * {@link MowerStateDecoder} and reused for every message of a mower, values are only valid if their flag is set.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class MowerState {
+
+    public static final int DAY_COUNT = 7;
+    public static final int ZONE_COUNT = 4;
+    public static final int ALLOCATION_COUNT = 10;
+
+    // cfg
+    public static final long CFG = 1L << 0;
+    public static final long ID = 1L << 1;
+    public static final long LANGUAGE = 1L << 2;
+    public static final long DATE = 1L << 3;
+    public static final long TIME = 1L << 4;
+    public static final long TIME_EXTENSION = 1L << 5;
+    public static final long SCHEDULE = 1L << 6;
+    public static final long COMMAND = 1L << 7;
+    public static final long ZONE_METERS = 1L << 8;
+    public static final long ZONE_ALLOCATIONS = 1L << 9;
+    public static final long RAIN_DELAY = 1L << 10;
+    public static final long SERIAL_NUMBER = 1L << 11;
+
+    // dat
+    public static final long DAT = 1L << 16;
+    public static final long MAC_ADDRESS = 1L << 17;
+    public static final long FIRMWARE = 1L << 18;
+    public static final long BATTERY_TEMPERATURE = 1L << 19;
+    public static final long BATTERY_VOLTAGE = 1L << 20;
+    public static final long BATTERY_LEVEL = 1L << 21;
+    public static final long BATTERY_CHARGE_CYCLE = 1L << 22;
+    public static final long BATTERY_CHARGING = 1L << 23;
+    public static final long PITCH = 1L << 24;
+    public static final long ROLL = 1L << 25;
+    public static final long YAW = 1L << 26;
+    public static final long TOTAL_BLADE_TIME = 1L << 27;
+    public static final long TOTAL_DISTANCE = 1L << 28;
+    public static final long TOTAL_TIME = 1L << 29;
+    public static final long STATUS = 1L << 30;
+    public static final long ERROR = 1L << 31;
+    public static final long LAST_ZONE = 1L << 32;
+    public static final long WIFI_QUALITY = 1L << 33;
+    public static final long LOCK = 1L << 34;
+
+    // index of decimal values, kept as unscaled value and scale to reproduce the payload exactly
+    static final int DECIMAL_FIRMWARE = 0;
+    static final int DECIMAL_BATTERY_TEMPERATURE = 1;
+    static final int DECIMAL_BATTERY_VOLTAGE = 2;
+    static final int DECIMAL_BATTERY_CHARGE_CYCLE = 3;
+    static final int DECIMAL_PITCH = 4;
+    static final int DECIMAL_ROLL = 5;
+    static final int DECIMAL_YAW = 6;
+
+    long flags;
+
+    // cfg
+    long id;
+    String language = "";
+    String date = "";
+    String time = "";
+    int timeExtension;
+    final int[] scheduleHours = new int[DAY_COUNT];
+    final int[] scheduleMinutes = new int[DAY_COUNT];
+    final int[] scheduleDurations = new int[DAY_COUNT];
+    final boolean[] scheduleEdgecuts = new boolean[DAY_COUNT];
+    long command;
+    final int[] zoneMeters = new int[ZONE_COUNT];
+    final int[] zoneAllocations = new int[ALLOCATION_COUNT];
+    long rainDelay;
+    String serialNumber = "";
+
+    // dat
+    String macAddress = "";
+    final long[] decimalValues = new long[DECIMAL_YAW + 1];
+    final int[] decimalScales = new int[DECIMAL_YAW + 1];
+    long batteryLevel;
+    boolean batteryCharging;
+    long totalBladeTime;
+    long totalDistance;
+    long totalTime;
+    long status;
+    long error;
+    int lastZone;
+    long wifiQuality;
+    boolean lock;
+
+    /**
+     * Reset all flags before the next message is decoded.
+     */
+    void clear() {
+        flags = 0;
+    }
+
+    void set(long flag) {
+        flags |= flag;
+    }
+
+    /**
+     * @param flag
+     * @return true if the value was part of the decoded message
+     */
+    public boolean has(long flag) {
+        return (flags & flag) != 0;
+    }
+
+    private BigDecimal getDecimal(int index) {
+        return BigDecimal.valueOf(decimalValues[index], decimalScales[index]);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * @return date of the mower, e.g. "13/03/2020"
+     */
+    public String getDate() {
+        return date;
+    }
+
+    /**
+     * @return time of the mower, e.g. "17:09:34"
+     */
+    public String getTime() {
+        return time;
+    }
+
+    public int getTimeExtension() {
+        return timeExtension;
+    }
+
+    /**
+     * @param day code of {@link org.openhab.binding.worxlandroid.internal.codes.WorxLandroidDayCodes}
+     * @return start hour of the schedule
+     */
+    public int getScheduleHour(int day) {
+        return scheduleHours[day];
+    }
+
+    public int getScheduleMinutes(int day) {
+        return scheduleMinutes[day];
+    }
+
+    public int getScheduleDuration(int day) {
+        return scheduleDurations[day];
+    }
+
+    public boolean isScheduleEdgecut(int day) {
+        return scheduleEdgecuts[day];
+    }
+
+    public long getCommand() {
+        return command;
+    }
+
+    public int getZoneMeter(int zoneIndex) {
+        return zoneMeters[zoneIndex];
+    }
+
+    public int getZoneAllocation(int allocationIndex) {
+        return zoneAllocations[allocationIndex];
+    }
+
+    public long getRainDelay() {
+        return rainDelay;
+    }
+
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    public String getMacAddress() {
+        return macAddress;
+    }
+
+    public BigDecimal getFirmware() {
+        return getDecimal(DECIMAL_FIRMWARE);
+    }
+
+    public BigDecimal getBatteryTemperature() {
+        return getDecimal(DECIMAL_BATTERY_TEMPERATURE);
+    }
+
+    public BigDecimal getBatteryVoltage() {
+        return getDecimal(DECIMAL_BATTERY_VOLTAGE);
+    }
+
+    public long getBatteryLevel() {
+        return batteryLevel;
+    }
+
+    public BigDecimal getBatteryChargeCycle() {
+        return getDecimal(DECIMAL_BATTERY_CHARGE_CYCLE);
+    }
+
+    public boolean isBatteryCharging() {
+        return batteryCharging;
+    }
+
+    public BigDecimal getPitch() {
+        return getDecimal(DECIMAL_PITCH);
+    }
+
+    public BigDecimal getRoll() {
+        return getDecimal(DECIMAL_ROLL);
+    }
+
+    public BigDecimal getYaw() {
+        return getDecimal(DECIMAL_YAW);
+    }
+
+    public long getTotalBladeTime() {
+        return totalBladeTime;
+    }
+
+    public long getTotalDistance() {
+        return totalDistance;
+    }
+
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    public long getStatus() {
+        return status;
+    }
+
+    public long getError() {
+        return error;
+    }
+
+    /**
+     * @return index of the last zone allocation
+     */
+    public int getLastZone() {
+        return lastZone;
+    }
+
+    public long getWifiQuality() {
+        return wifiQuality;
+    }
+
+    public boolean isLock() {
+        return lock;
+    }
+
+    @Override
+    public String toString() {
+        return "MowerState [flags=" + Long.toBinaryString(flags) + ", id=" + id + ", language=" + language + ", date="
+                + date + ", time=" + time + ", timeExtension=" + timeExtension + ", scheduleHours="
+                + Arrays.toString(scheduleHours) + ", scheduleMinutes=" + Arrays.toString(scheduleMinutes)
+                + ", scheduleDurations=" + Arrays.toString(scheduleDurations) + ", scheduleEdgecuts="
+                + Arrays.toString(scheduleEdgecuts) + ", command=" + command + ", zoneMeters="
+                + Arrays.toString(zoneMeters) + ", zoneAllocations=" + Arrays.toString(zoneAllocations)
+                + ", rainDelay=" + rainDelay + ", serialNumber=" + serialNumber + ", macAddress=" + macAddress
+                + ", decimalValues=" + Arrays.toString(decimalValues) + ", decimalScales="
+                + Arrays.toString(decimalScales) + ", batteryLevel=" + batteryLevel + ", batteryCharging="
+                + batteryCharging + ", totalBladeTime=" + totalBladeTime + ", totalDistance=" + totalDistance
+                + ", totalTime=" + totalTime + ", status=" + status + ", error=" + error + ", lastZone=" + lastZone
+                + ", wifiQuality=" + wifiQuality + ", lock=" + lock + "]";
+    }
+}
@@ -0,0 +1,496 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * {@link MowerStateDecoder} decodes a mower status message in a single pass with a streaming {@link JsonReader} into
+ * a reused {@link MowerState}, without building a json tree. Unknown members and skipped sections (see
+ * {@link #setSkippedSections(int)}) are skipped without decoding their values.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class MowerStateDecoder {
+
+    // max. digits of an unscaled decimal value which fit into a long
+    private static final int MAX_DECIMAL_DIGITS = 18;
+
+    // payload sections which can be skipped, see setSkippedSections
+    public static final int SECTION_ORIENTATION = 1; // dat/dmp
+    public static final int SECTION_STATISTICS = 1 << 1; // dat/st
+    public static final int SECTION_SCHEDULE = 1 << 2; // cfg/sc
+    public static final int SECTION_ZONE_METERS = 1 << 3; // cfg/mz
+    public static final int SECTION_ZONE_ALLOCATIONS = 1 << 4; // cfg/mzv
+    public static final int ALL_SECTIONS = SECTION_ORIENTATION | SECTION_STATISTICS | SECTION_SCHEDULE
+            | SECTION_ZONE_METERS | SECTION_ZONE_ALLOCATIONS;
+
+    // sections which are skipped without decoding their values
+    private volatile int skippedSections;
+
+    /**
+     * @param skippedSections sections which are skipped without decoding, e.g. SECTION_ORIENTATION |
+     *            SECTION_STATISTICS, 0 = decode all sections
+     */
+    public void setSkippedSections(int skippedSections) {
+        this.skippedSections = skippedSections & ALL_SECTIONS;
+    }
+
+    public int getSkippedSections() {
+        return skippedSections;
+    }
+
+    /**
+     * @param section e.g. SECTION_SCHEDULE
+     * @return true if the section is skipped
+     */
+    public boolean skips(int section) {
+        return (skippedSections & section) != 0;
+    }
+
+    /**
+     * @param payload raw json payload
+     * @param state is cleared and filled with the values of the payload
+     * @return false if the payload is not a json object
+     * @throws JsonSyntaxException if the payload is malformed
+     */
+    public boolean decode(String payload, MowerState state) {
+
+        state.clear();
+        try (JsonReader reader = new JsonReader(new StringReader(payload))) {
+            reader.setLenient(true);
+
+            JsonToken token;
+            try {
+                token = reader.peek();
+            } catch (EOFException e) {
+                // empty payload
+                return false;
+            }
+            if (token != JsonToken.BEGIN_OBJECT) {
+                return false;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("cfg".equals(name) && isObject(reader)) {
+                    state.set(MowerState.CFG);
+                    decodeCfg(reader, state);
+                } else if ("dat".equals(name) && isObject(reader)) {
+                    state.set(MowerState.DAT);
+                    decodeDat(reader, state);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+            return true;
+
+        } catch (IOException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private void decodeCfg(JsonReader reader, MowerState state) throws IOException {
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!isValue(reader)) {
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    state.id = reader.nextLong();
+                    state.set(MowerState.ID);
+                    break;
+                case "lg":
+                    state.language = reader.nextString();
+                    state.set(MowerState.LANGUAGE);
+                    break;
+                case "dt":
+                    state.date = reader.nextString();
+                    state.set(MowerState.DATE);
+                    break;
+                case "tm":
+                    state.time = reader.nextString();
+                    state.set(MowerState.TIME);
+                    break;
+                case "sc":
+                    if (!skips(SECTION_SCHEDULE) && isObject(reader)) {
+                        decodeSchedule(reader, state);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "cmd":
+                    state.command = reader.nextLong();
+                    state.set(MowerState.COMMAND);
+                    break;
+                case "mz":
+                    if (skips(SECTION_ZONE_METERS)) {
+                        reader.skipValue();
+                    } else if (readIntArray(reader, state.zoneMeters)) {
+                        state.set(MowerState.ZONE_METERS);
+                    }
+                    break;
+                case "mzv":
+                    if (skips(SECTION_ZONE_ALLOCATIONS)) {
+                        reader.skipValue();
+                    } else if (readIntArray(reader, state.zoneAllocations)) {
+                        state.set(MowerState.ZONE_ALLOCATIONS);
+                    }
+                    break;
+                case "rd":
+                    state.rainDelay = reader.nextLong();
+                    state.set(MowerState.RAIN_DELAY);
+                    break;
+                case "sn":
+                    state.serialNumber = reader.nextString();
+                    state.set(MowerState.SERIAL_NUMBER);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * cfg/sc, e.g. {"m":1,"p":0,"d":[["10:00",300,1],...]}
+     */
+    private void decodeSchedule(JsonReader reader, MowerState state) throws IOException {
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("p".equals(name) && isValue(reader)) {
+                state.timeExtension = reader.nextInt();
+                state.set(MowerState.TIME_EXTENSION);
+            } else if ("d".equals(name) && isArray(reader)) {
+                int day = 0;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (day < MowerState.DAY_COUNT && isArray(reader) && readScheduledDay(reader, state, day)) {
+                        day++;
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endArray();
+                if (day == MowerState.DAY_COUNT) {
+                    state.set(MowerState.SCHEDULE);
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * @return true if start time, duration and edgecut were read, e.g. ["10:00",300,1]
+     */
+    private boolean readScheduledDay(JsonReader reader, MowerState state, int day) throws IOException {
+
+        int index = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (index == 0) {
+                String start = reader.nextString();
+                int separator = start.indexOf(':');
+                if (separator < 0) {
+                    throw new NumberFormatException("invalid start time '" + start + "'");
+                }
+                state.scheduleHours[day] = Integer.parseInt(start.substring(0, separator));
+                state.scheduleMinutes[day] = Integer.parseInt(start.substring(separator + 1));
+            } else if (index == 1) {
+                state.scheduleDurations[day] = reader.nextInt();
+            } else if (index == 2) {
+                state.scheduleEdgecuts[day] = reader.nextInt() == 1;
+            } else {
+                reader.skipValue();
+            }
+            index++;
+        }
+        reader.endArray();
+        return index >= 3;
+    }
+
+    private void decodeDat(JsonReader reader, MowerState state) throws IOException {
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!isValue(reader)) {
+                continue;
+            }
+            switch (name) {
+                case "mac":
+                    state.macAddress = reader.nextString();
+                    state.set(MowerState.MAC_ADDRESS);
+                    break;
+                case "fw":
+                    readDecimal(reader, state, MowerState.DECIMAL_FIRMWARE);
+                    state.set(MowerState.FIRMWARE);
+                    break;
+                case "bt":
+                    if (isObject(reader)) {
+                        decodeBattery(reader, state);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "dmp":
+                    if (!skips(SECTION_ORIENTATION) && isArray(reader)) {
+                        decodeOrientation(reader, state);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "st":
+                    if (!skips(SECTION_STATISTICS) && isObject(reader)) {
+                        decodeStatistics(reader, state);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "ls":
+                    state.status = reader.nextLong();
+                    state.set(MowerState.STATUS);
+                    break;
+                case "le":
+                    state.error = reader.nextLong();
+                    state.set(MowerState.ERROR);
+                    break;
+                case "lz":
+                    state.lastZone = reader.nextInt();
+                    state.set(MowerState.LAST_ZONE);
+                    break;
+                case "rsi":
+                    state.wifiQuality = reader.nextLong();
+                    state.set(MowerState.WIFI_QUALITY);
+                    break;
+                case "lk":
+                    state.lock = reader.nextInt() == 1;
+                    state.set(MowerState.LOCK);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * dat/bt, e.g. {"t":19.5,"v":19.53,"p":100,"nr":125,"c":0,"m":1}
+     */
+    private void decodeBattery(JsonReader reader, MowerState state) throws IOException {
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!isValue(reader)) {
+                continue;
+            }
+            switch (name) {
+                case "t":
+                    readDecimal(reader, state, MowerState.DECIMAL_BATTERY_TEMPERATURE);
+                    state.set(MowerState.BATTERY_TEMPERATURE);
+                    break;
+                case "v":
+                    readDecimal(reader, state, MowerState.DECIMAL_BATTERY_VOLTAGE);
+                    state.set(MowerState.BATTERY_VOLTAGE);
+                    break;
+                case "p":
+                    state.batteryLevel = reader.nextLong();
+                    state.set(MowerState.BATTERY_LEVEL);
+                    break;
+                case "nr":
+                    readDecimal(reader, state, MowerState.DECIMAL_BATTERY_CHARGE_CYCLE);
+                    state.set(MowerState.BATTERY_CHARGE_CYCLE);
+                    break;
+                case "c":
+                    state.batteryCharging = reader.nextInt() == 1;
+                    state.set(MowerState.BATTERY_CHARGING);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * dat/dmp, e.g. [0.8,-1.4,288.1] -> pitch, roll, yaw
+     */
+    private void decodeOrientation(JsonReader reader, MowerState state) throws IOException {
+
+        int index = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (index == 0 && isValue(reader)) {
+                readDecimal(reader, state, MowerState.DECIMAL_PITCH);
+                state.set(MowerState.PITCH);
+            } else if (index == 1 && isValue(reader)) {
+                readDecimal(reader, state, MowerState.DECIMAL_ROLL);
+                state.set(MowerState.ROLL);
+            } else if (index == 2 && isValue(reader)) {
+                readDecimal(reader, state, MowerState.DECIMAL_YAW);
+                state.set(MowerState.YAW);
+            } else {
+                reader.skipValue();
+            }
+            index++;
+        }
+        reader.endArray();
+    }
+
+    /**
+     * dat/st, e.g. {"b":5338,"d":285587,"wt":6934,"bl":...}
+     */
+    private void decodeStatistics(JsonReader reader, MowerState state) throws IOException {
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!isValue(reader)) {
+                continue;
+            }
+            switch (name) {
+                case "b":
+                    state.totalBladeTime = reader.nextLong();
+                    state.set(MowerState.TOTAL_BLADE_TIME);
+                    break;
+                case "d":
+                    state.totalDistance = reader.nextLong();
+                    state.set(MowerState.TOTAL_DISTANCE);
+                    break;
+                case "wt":
+                    state.totalTime = reader.nextLong();
+                    state.set(MowerState.TOTAL_TIME);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * @return true if all values of the target were read, additional values are skipped
+     */
+    private boolean readIntArray(JsonReader reader, int[] target) throws IOException {
+
+        if (!isArray(reader)) {
+            reader.skipValue();
+            return false;
+        }
+
+        int index = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (index < target.length) {
+                target[index++] = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+        return index == target.length;
+    }
+
+    /**
+     * Reads a decimal number as unscaled value and scale, e.g. "19.53" -> 1953 and 2.
+     */
+    private void readDecimal(JsonReader reader, MowerState state, int index) throws IOException {
+
+        String text = reader.nextString();
+        int length = text.length();
+        int position = 0;
+        boolean negative = false;
+        if (position < length && text.charAt(position) == '-') {
+            negative = true;
+            position++;
+        }
+
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (; position < length; position++) {
+            char c = text.charAt(position);
+            if (c >= '0' && c <= '9' && digits < MAX_DECIMAL_DIGITS) {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+
+        if (position < length || digits == 0) {
+            // exponent or too many digits
+            BigDecimal value = new BigDecimal(text);
+            state.decimalValues[index] = value.unscaledValue().longValueExact();
+            state.decimalScales[index] = value.scale();
+        } else {
+            state.decimalValues[index] = negative ? -unscaled : unscaled;
+            state.decimalScales[index] = Math.max(scale, 0);
+        }
+    }
+
+    /**
+     * Skips a null value.
+     *
+     * @return false if the value was null
+     */
+    private boolean isValue(JsonReader reader) throws IOException {
+
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isObject(JsonReader reader) throws IOException {
+        return reader.peek() == JsonToken.BEGIN_OBJECT;
+    }
+
+    private boolean isArray(JsonReader reader) throws IOException {
+        return reader.peek() == JsonToken.BEGIN_ARRAY;
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@link MqttMetrics} MQTT traffic statistics of a bridge per topic and in total.
+ *
+ * Inbound messages are recorded per subscribed topic ('command_out' of a mower), outbound messages per published
+ * topic ('command_in' of a mower). The lag is the difference between receive time and the mower's own timestamp, the
+ * PUBACK latency the time the broker needs to acknowledge a QoS 1 message.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class MqttMetrics {
+
+    private final TrafficStats total = new TrafficStats();
+    private final Map<String, TrafficStats> topics = new ConcurrentHashMap<>();
+
+    /**
+     * @param topic
+     * @param bytes payload size
+     */
+    public void recordInbound(String topic, int bytes) {
+        total.recordInbound(bytes);
+        getOrCreate(topic).recordInbound(bytes);
+    }
+
+    /**
+     * @param topic
+     * @param bytes payload size
+     */
+    public void recordOutbound(String topic, int bytes) {
+        total.recordOutbound(bytes);
+        getOrCreate(topic).recordOutbound(bytes);
+    }
+
+    /**
+     * @param topic
+     */
+    public void recordDuplicate(String topic) {
+        total.recordDuplicate();
+        getOrCreate(topic).recordDuplicate();
+    }
+
+    /**
+     * @param topic
+     * @param millis lag in milliseconds
+     */
+    public void recordLag(String topic, long millis) {
+        total.recordLag(millis);
+        getOrCreate(topic).recordLag(millis);
+    }
+
+    /**
+     * @param topic
+     * @param millis time between publish and acknowledgement (PUBACK) of the broker
+     */
+    public void recordPubackLatency(String topic, long millis) {
+        total.recordPubackLatency(millis);
+        getOrCreate(topic).recordPubackLatency(millis);
+    }
+
+    /**
+     * @param topic
+     * @param millis time between publishing a command or poll and the next message of the mower
+     */
+    public void recordRoundTrip(String topic, long millis) {
+        total.recordRoundTrip(millis);
+        getOrCreate(topic).recordRoundTrip(millis);
+    }
+
+    /**
+     * @param topic
+     */
+    public void recordPublishFailure(String topic) {
+        total.recordPublishFailure();
+        getOrCreate(topic).recordPublishFailure();
+    }
+
+    /**
+     * @return statistics of all topics
+     */
+    public TrafficStats getTotal() {
+        return total;
+    }
+
+    /**
+     * @param topic
+     * @return statistics of topic, null if nothing was recorded
+     */
+    public @Nullable TrafficStats getTopicStats(String topic) {
+        return topics.get(topic);
+    }
+
+    /**
+     * @param topic
+     * @return statistics of topic, created if nothing was recorded yet
+     */
+    public TrafficStats getOrCreateTopicStats(String topic) {
+        return getOrCreate(topic);
+    }
+
+    /**
+     * Remove statistics of a topic.
+     *
+     * @param topic
+     */
+    public void remove(String topic) {
+        topics.remove(topic);
+    }
+
+    private TrafficStats getOrCreate(String topic) {
+        return topics.computeIfAbsent(topic, t -> new TrafficStats());
+    }
+}
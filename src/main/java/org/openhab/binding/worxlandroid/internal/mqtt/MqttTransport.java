@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.util.Map;
+
+import com.amazonaws.services.iot.client.AWSIotException;
+import com.amazonaws.services.iot.client.AWSIotMessage;
+import com.amazonaws.services.iot.client.AWSIotTopic;
+
+/**
+ * {@link MqttTransport} MQTT connection used by the bridge to publish and subscribe mower topics.
+ *
+ * Connection events are reported to an {@link AWSClientCallback}, received messages to the subscribed
+ * {@link AWSIotTopic}. Implementations reconnect on their own after the connection is lost.
+ *
+ * @author Nils - Initial contribution
+ */
+public interface MqttTransport {
+
+    /**
+     * Connect (blocking).
+     *
+     * @throws AWSIotException
+     */
+    public void connect() throws AWSIotException;
+
+    /**
+     * Disconnect (blocking), no reconnect is done afterwards.
+     *
+     * @throws AWSIotException
+     */
+    public void disconnect() throws AWSIotException;
+
+    /**
+     * Publish message (non blocking).
+     *
+     * @param message
+     * @throws AWSIotException
+     */
+    public void publish(AWSIotMessage message) throws AWSIotException;
+
+    /**
+     * Publish message (non blocking). The result is reported to {@link AWSIotMessage#onSuccess()},
+     * {@link AWSIotMessage#onFailure()} or {@link AWSIotMessage#onTimeout()}, for QoS 1 after the acknowledgement of
+     * the broker.
+     *
+     * @param message
+     * @param timeout timeout in milliseconds, 0 = no timeout
+     * @throws AWSIotException
+     */
+    public void publish(AWSIotMessage message, long timeout) throws AWSIotException;
+
+    /**
+     * Subscribe topic.
+     *
+     * @param topic
+     * @throws AWSIotException
+     */
+    public void subscribe(AWSIotTopic topic) throws AWSIotException;
+
+    /**
+     * Unsubscribe topic.
+     *
+     * @param topic
+     * @throws AWSIotException
+     */
+    public void unsubscribe(String topic) throws AWSIotException;
+
+    /**
+     * @return topic -> subscription of all subscribed topics
+     */
+    public Map<String, AWSIotTopic> getSubscriptions();
+
+    /**
+     * @return endpoint (host or URI) of the broker
+     */
+    public String getEndpoint();
+}
@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.MqttTopic;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.iot.client.AWSIotException;
+import com.amazonaws.services.iot.client.AWSIotMessage;
+import com.amazonaws.services.iot.client.AWSIotQos;
+import com.amazonaws.services.iot.client.AWSIotTopic;
+
+/**
+ * {@link PahoClient} plain MQTT transport for a local broker or relay (e.g. tcp://localhost:1883).
+ *
+ * Reconnects are scheduled according to the {@link ReconnectPolicy} like in {@link AWSClient}.
+ *
+ * @author Nils - Initial contribution
+ */
+public class PahoClient implements MqttTransport, MqttCallbackExtended {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PahoClient.class);
+
+    private static final long OPERATION_TIMEOUT = 30000;
+
+    private final MqttAsyncClient client;
+    private final MqttConnectOptions connectOptions = new MqttConnectOptions();
+    private final AWSClientCallback clientCallback;
+    private final ReconnectPolicy reconnectPolicy;
+    private final ScheduledExecutorService scheduler;
+
+    // topic -> subscription
+    private final Map<String, AWSIotTopic> subscriptions = new ConcurrentHashMap<>();
+
+    private volatile boolean disconnectRequested;
+    private ScheduledFuture<?> reconnectJob;
+
+    /**
+     * @param brokerUri e.g. tcp://localhost:1883
+     * @param clientId
+     * @param username may be null or empty
+     * @param password may be null or empty
+     * @param clientCallback
+     * @param reconnectPolicy
+     * @param scheduler scheduler for reconnect attempts
+     * @throws AWSIotException
+     */
+    public PahoClient(String brokerUri, String clientId, String username, String password,
+            AWSClientCallback clientCallback, ReconnectPolicy reconnectPolicy, ScheduledExecutorService scheduler)
+            throws AWSIotException {
+
+        try {
+            this.client = new MqttAsyncClient(brokerUri, clientId, new MemoryPersistence());
+        } catch (MqttException | IllegalArgumentException e) {
+            throw new AWSIotException("invalid broker " + brokerUri + ": " + e.getMessage());
+        }
+        this.client.setCallback(this);
+
+        connectOptions.setCleanSession(true);
+        connectOptions.setAutomaticReconnect(false);
+        if (username != null && !username.isEmpty()) {
+            connectOptions.setUserName(username);
+            if (password != null) {
+                connectOptions.setPassword(password.toCharArray());
+            }
+        }
+
+        this.clientCallback = clientCallback;
+        this.reconnectPolicy = reconnectPolicy;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void connect() throws AWSIotException {
+
+        disconnectRequested = false;
+        try {
+            client.connect(connectOptions).waitForCompletion(OPERATION_TIMEOUT);
+        } catch (MqttException e) {
+            clientCallback.onAWSConnectionFailure();
+            scheduleReconnect();
+            throw new AWSIotException("connect to " + getEndpoint() + " failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void disconnect() throws AWSIotException {
+
+        disconnectRequested = true;
+        cancelReconnect();
+        try {
+            if (client.isConnected()) {
+                client.disconnect().waitForCompletion(OPERATION_TIMEOUT);
+            }
+            client.close();
+        } catch (MqttException e) {
+            throw new AWSIotException("disconnect failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void publish(AWSIotMessage message) throws AWSIotException {
+        publish(message, 0);
+    }
+
+    @Override
+    public void publish(AWSIotMessage message, long timeout) throws AWSIotException {
+
+        ScheduledFuture<?> timeoutJob = timeout > 0
+                ? scheduler.schedule(message::onTimeout, timeout, TimeUnit.MILLISECONDS)
+                : null;
+        try {
+            client.publish(message.getTopic(), message.getPayload(), message.getQos().getValue(), false, null,
+                    new IMqttActionListener() {
+
+                        @Override
+                        public void onSuccess(IMqttToken asyncActionToken) {
+                            cancelTimeout(timeoutJob);
+                            message.onSuccess();
+                        }
+
+                        @Override
+                        public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+                            cancelTimeout(timeoutJob);
+                            message.onFailure();
+                        }
+                    });
+        } catch (MqttException e) {
+            cancelTimeout(timeoutJob);
+            throw new AWSIotException("publish to " + message.getTopic() + " failed: " + e.getMessage());
+        }
+    }
+
+    private void cancelTimeout(ScheduledFuture<?> timeoutJob) {
+        if (timeoutJob != null) {
+            timeoutJob.cancel(false);
+        }
+    }
+
+    @Override
+    public void subscribe(AWSIotTopic topic) throws AWSIotException {
+
+        try {
+            client.subscribe(topic.getTopic(), topic.getQos().getValue()).waitForCompletion(OPERATION_TIMEOUT);
+            subscriptions.put(topic.getTopic(), topic);
+        } catch (MqttException e) {
+            throw new AWSIotException("subscribe to " + topic.getTopic() + " failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void unsubscribe(String topic) throws AWSIotException {
+
+        subscriptions.remove(topic);
+        try {
+            if (client.isConnected()) {
+                client.unsubscribe(topic);
+            }
+        } catch (MqttException e) {
+            throw new AWSIotException("unsubscribe from " + topic + " failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, AWSIotTopic> getSubscriptions() {
+        return subscriptions;
+    }
+
+    @Override
+    public String getEndpoint() {
+        return client.getServerURI();
+    }
+
+    @Override
+    public void connectComplete(boolean reconnect, String serverURI) {
+
+        LOGGER.debug("connected to {}", serverURI);
+        reconnectPolicy.reset();
+        // clean session, subscriptions have to be restored by the bridge
+        subscriptions.clear();
+        clientCallback.onAWSConnectionSuccess();
+    }
+
+    @Override
+    public void connectionLost(Throwable cause) {
+
+        LOGGER.debug("connection to {} lost -> {}", getEndpoint(), cause.getMessage());
+        clientCallback.onAWSConnectionClosed();
+        if (!disconnectRequested) {
+            scheduleReconnect();
+        }
+    }
+
+    @Override
+    public void messageArrived(String topic, MqttMessage mqttMessage) {
+
+        AWSIotTopic subscription = subscriptions.get(topic);
+        if (subscription == null) {
+            for (AWSIotTopic candidate : subscriptions.values()) {
+                if (MqttTopic.isMatched(candidate.getTopic(), topic)) {
+                    subscription = candidate;
+                    break;
+                }
+            }
+        }
+
+        if (subscription == null) {
+            LOGGER.debug("no subscription for topic {}", topic);
+            return;
+        }
+
+        subscription.onMessage(
+                new AWSIotMessage(topic, AWSIotQos.valueOf(mqttMessage.getQos()), mqttMessage.getPayload()));
+    }
+
+    @Override
+    public void deliveryComplete(IMqttDeliveryToken token) {
+    }
+
+    /**
+     * Schedule next reconnect attempt, if none is pending.
+     */
+    private synchronized void scheduleReconnect() {
+
+        ScheduledFuture<?> job = reconnectJob;
+        if (disconnectRequested || (job != null && !job.isDone())) {
+            return;
+        }
+
+        long delay = reconnectPolicy.nextDelay();
+        LOGGER.debug("reconnect attempt {} in {} ms", reconnectPolicy.getAttempt(), delay);
+        reconnectJob = scheduler.schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void cancelReconnect() {
+
+        ScheduledFuture<?> job = reconnectJob;
+        if (job != null) {
+            job.cancel(false);
+            reconnectJob = null;
+        }
+    }
+
+    private void reconnect() {
+
+        synchronized (this) {
+            // this job is running, allow scheduling of the next attempt
+            reconnectJob = null;
+        }
+
+        if (disconnectRequested || client.isConnected()) {
+            return;
+        }
+
+        try {
+            client.connect(connectOptions).waitForCompletion(OPERATION_TIMEOUT);
+        } catch (MqttException e) {
+            LOGGER.debug("reconnect failed -> {}", e.getMessage());
+            clientCallback.onAWSConnectionFailure();
+            scheduleReconnect();
+        }
+    }
+}
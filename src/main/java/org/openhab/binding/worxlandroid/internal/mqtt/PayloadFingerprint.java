@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link PayloadFingerprint} 64 bit FNV-1a hash of a raw mower payload to detect repeated status messages.
+ *
+ * The values of the volatile members 'tm' and 'dt' (mower time and date) are skipped, so an echo which only differs
+ * in its timestamp has the same fingerprint.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class PayloadFingerprint {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private PayloadFingerprint() {
+    }
+
+    /**
+     * @param payload raw json payload
+     * @return fingerprint
+     */
+    public static long of(String payload) {
+
+        long hash = FNV_OFFSET_BASIS;
+        int length = payload.length();
+        int i = 0;
+        while (i < length) {
+            char c = payload.charAt(i);
+            hash = (hash ^ c) * FNV_PRIME;
+            i++;
+
+            // "tm": "17:09:34" / "dt": "13/03/2020" -> skip quoted value
+            if (c == '"' && i + 3 < length && payload.charAt(i + 2) == '"' && isVolatileName(payload, i)) {
+                int valueStart = payload.indexOf('"', i + 3);
+                int valueEnd = valueStart < 0 ? -1 : payload.indexOf('"', valueStart + 1);
+                if (valueEnd > 0) {
+                    i = valueEnd + 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static boolean isVolatileName(String payload, int index) {
+        char c0 = payload.charAt(index);
+        char c1 = payload.charAt(index + 1);
+        char next = payload.charAt(index + 3);
+        return ((c0 == 't' && c1 == 'm') || (c0 == 'd' && c1 == 't')) && (next == ':' || next == ' ');
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * {@link PayloadScanner} reads single numeric members from a raw mower payload without parsing the whole json, e.g.
+ * 'ls' and 'le' for the fast path of critical states.
+ *
+ * Only suitable for member names which are unique within the payload.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class PayloadScanner {
+
+    private PayloadScanner() {
+    }
+
+    /**
+     * @param payload raw json payload
+     * @param name member name
+     * @param defaultValue value if member is missing or not an integer
+     * @return integer value of the first member with the given name
+     */
+    public static int scanInt(String payload, String name, int defaultValue) {
+
+        int index = indexOfName(payload, name);
+        if (index < 0) {
+            return defaultValue;
+        }
+
+        int length = payload.length();
+        // skip whitespace and ':'
+        while (index < length && (payload.charAt(index) == ':' || Character.isWhitespace(payload.charAt(index)))) {
+            index++;
+        }
+
+        boolean negative = false;
+        if (index < length && payload.charAt(index) == '-') {
+            negative = true;
+            index++;
+        }
+
+        int start = index;
+        long value = 0;
+        while (index < length && index - start < 10) {
+            char c = payload.charAt(index);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            index++;
+        }
+
+        if (index == start) {
+            return defaultValue;
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * @param payload raw json payload
+     * @param name member name
+     * @return string value of the first member with the given name, null if member is missing or not a string
+     */
+    public static @Nullable String scanString(String payload, String name) {
+
+        int index = indexOfName(payload, name);
+        if (index < 0) {
+            return null;
+        }
+
+        int length = payload.length();
+        while (index < length && (payload.charAt(index) == ':' || Character.isWhitespace(payload.charAt(index)))) {
+            index++;
+        }
+
+        if (index >= length || payload.charAt(index) != '"') {
+            return null;
+        }
+
+        int end = payload.indexOf('"', index + 1);
+        return end < 0 ? null : payload.substring(index + 1, end);
+    }
+
+    /**
+     * @param payload
+     * @param name
+     * @return index after the quoted name, -1 if not found
+     */
+    private static int indexOfName(String payload, String name) {
+
+        int from = 0;
+        while (true) {
+            int index = payload.indexOf(name, from);
+            if (index < 0) {
+                return -1;
+            }
+            int end = index + name.length();
+            if (index > 0 && payload.charAt(index - 1) == '"' && end < payload.length()
+                    && payload.charAt(end) == '"') {
+                return end + 1;
+            }
+            from = end;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+/**
+ * {@link PublishListener} completion of a published QoS 1 message.
+ *
+ * @author Nils - Initial contribution
+ */
+public interface PublishListener {
+
+    /**
+     * callback method when the broker acknowledged the message
+     *
+     * @param message published message
+     * @param latency time in milliseconds between publish and acknowledgement
+     */
+    public void onPublishSuccess(AWSMessage message, long latency);
+
+    /**
+     * callback method when publishing failed or timed out
+     *
+     * @param message published message
+     * @param queuedAt time the message was queued first, or published if it was never queued
+     */
+    public void onPublishFailure(AWSMessage message, long queuedAt);
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link RateCounter} counts events in a sliding window of 60 one-second buckets.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class RateCounter {
+
+    private static final int BUCKETS = 60;
+
+    private final long[] counts = new long[BUCKETS];
+    // second of each bucket
+    private final long[] seconds = new long[BUCKETS];
+
+    /**
+     * Count one event.
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * @param value value to add to the current bucket
+     */
+    public synchronized void add(long value) {
+
+        long second = System.currentTimeMillis() / 1000;
+        int index = (int) (second % BUCKETS);
+        if (seconds[index] != second) {
+            seconds[index] = second;
+            counts[index] = 0;
+        }
+        counts[index] += value;
+    }
+
+    /**
+     * @return sum of the last 60 seconds
+     */
+    public synchronized long getPerMinute() {
+
+        long oldest = System.currentTimeMillis() / 1000 - BUCKETS;
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (seconds[i] > oldest) {
+                sum += counts[i];
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link ReconnectPolicy} computes the delay before the next reconnect attempt.
+ *
+ * The first attempt is made after a short fixed delay, so a short outage is recovered quickly. All following attempts
+ * use exponential backoff with full jitter (random delay between 0 and min(maxDelay, baseDelay * 2^attempt)), so
+ * clients disconnected by the same outage do not reconnect in lockstep.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class ReconnectPolicy {
+
+    // 2^30 * baseDelay is above any sensible max. delay
+    private static final int MAX_EXPONENT = 30;
+
+    private final long initialDelay;
+    private final long baseDelay;
+    private final long maxDelay;
+
+    private int attempt;
+
+    /**
+     * @param initialDelay delay before first attempt in milliseconds
+     * @param baseDelay base delay of the exponential backoff in milliseconds
+     * @param maxDelay max. delay between two attempts in milliseconds
+     */
+    public ReconnectPolicy(long initialDelay, long baseDelay, long maxDelay) {
+        this.initialDelay = Math.max(0, initialDelay);
+        this.baseDelay = Math.max(1, baseDelay);
+        this.maxDelay = Math.max(this.baseDelay, maxDelay);
+    }
+
+    /**
+     * Returns delay of the next attempt and counts the attempt.
+     *
+     * @return delay in milliseconds
+     */
+    public synchronized long nextDelay() {
+
+        int currentAttempt = attempt;
+        if (attempt < MAX_EXPONENT) {
+            attempt++;
+        }
+
+        if (currentAttempt == 0) {
+            return initialDelay;
+        }
+
+        long ceiling = Math.min(maxDelay, baseDelay << Math.min(currentAttempt, MAX_EXPONENT));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * @return number of attempts since last reset
+     */
+    public synchronized int getAttempt() {
+        return attempt;
+    }
+
+    /**
+     * Reset after successful connection.
+     */
+    public synchronized void reset() {
+        attempt = 0;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.mqtt;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * {@link TrafficStats} message and byte counters of one topic (or of all topics) per direction.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class TrafficStats {
+
+    private final AtomicLong messagesIn = new AtomicLong();
+    private final AtomicLong messagesOut = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong duplicatesIn = new AtomicLong();
+    private final AtomicLong publishFailures = new AtomicLong();
+
+    private final RateCounter messagesInRate = new RateCounter();
+    private final RateCounter messagesOutRate = new RateCounter();
+
+    private final LagStats lag = new LagStats();
+    private final LagStats pubackLatency = new LagStats();
+    private final LagStats roundTrip = new LagStats();
+
+    void recordInbound(int bytes) {
+        messagesIn.incrementAndGet();
+        bytesIn.addAndGet(bytes);
+        messagesInRate.increment();
+    }
+
+    void recordOutbound(int bytes) {
+        messagesOut.incrementAndGet();
+        bytesOut.addAndGet(bytes);
+        messagesOutRate.increment();
+    }
+
+    void recordDuplicate() {
+        duplicatesIn.incrementAndGet();
+    }
+
+    void recordLag(long millis) {
+        lag.record(millis);
+    }
+
+    void recordPubackLatency(long millis) {
+        pubackLatency.record(millis);
+    }
+
+    void recordRoundTrip(long millis) {
+        roundTrip.record(millis);
+    }
+
+    void recordPublishFailure() {
+        publishFailures.incrementAndGet();
+    }
+
+    public long getMessagesIn() {
+        return messagesIn.get();
+    }
+
+    public long getMessagesOut() {
+        return messagesOut.get();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    /**
+     * @return received messages which were skipped because they repeated the previous message
+     */
+    public long getDuplicatesIn() {
+        return duplicatesIn.get();
+    }
+
+    /**
+     * @return inbound messages of the last minute
+     */
+    public long getMessagesInPerMinute() {
+        return messagesInRate.getPerMinute();
+    }
+
+    /**
+     * @return outbound messages of the last minute
+     */
+    public long getMessagesOutPerMinute() {
+        return messagesOutRate.getPerMinute();
+    }
+
+    public LagStats getLag() {
+        return lag;
+    }
+
+    /**
+     * @return time between publishing a QoS 1 message and the acknowledgement of the broker
+     */
+    public LagStats getPubackLatency() {
+        return pubackLatency;
+    }
+
+    /**
+     * @return time between publishing a command or poll and the next message of the mower
+     */
+    public LagStats getRoundTrip() {
+        return roundTrip;
+    }
+
+    /**
+     * @return QoS 1 messages which failed or timed out without acknowledgement of the broker
+     */
+    public long getPublishFailures() {
+        return publishFailures.get();
+    }
+}
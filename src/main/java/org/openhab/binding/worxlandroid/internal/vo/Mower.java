@@ -13,19 +13,22 @@
 package org.openhab.binding.worxlandroid.internal.vo;
 
 import java.util.Arrays;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.function.BiFunction;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidDayCodes;
 
 /**
- * {@link Mower}
+ * {@link Mower} immutable snapshot of the mower state.
+ * <p>
+ * Changes return a modified copy (copy-on-write), a snapshot is never modified once returned. Snapshots are shared
+ * between the MQTT callback thread and the command thread through an
+ * {@link java.util.concurrent.atomic.AtomicReference}, so readers never see a half-updated week or zone meter array.
  *
  * @author Nils - Initial contribution
  */
 @NonNullByDefault
-public class Mower {
+public final class Mower {
 
     private static final int TIME_EXTENSION_DISABLE = -100;
     private static final int[] MULTI_ZONE_METER_DISABLE = { 0, 0, 0, 0 };
@@ -33,7 +36,7 @@ public class Mower {
 
     private boolean enable;
 
-    private String serialNumber;
+    private final String serialNumber;
     private boolean online;
 
     private long status = -1;
@@ -48,13 +51,14 @@ public class Mower {
     private boolean multiZoneEnable;
 
     // multizone meter
-    int[] zoneMeter = new int[4];
-    int[] zoneMeterRestore = new int[4];
+    private int[] zoneMeter = new int[4];
+    private int[] zoneMeterRestore = new int[4];
 
     // multizone allocations
-    int[] allocations = new int[10];
+    private int[] allocations = new int[10];
 
-    private Map<WorxLandroidDayCodes, ScheduledDay> scheduledDays = new LinkedHashMap<WorxLandroidDayCodes, ScheduledDay>();
+    // scheduled day per day code
+    private ScheduledDay[] scheduledDays = new ScheduledDay[WorxLandroidDayCodes.values().length];
 
     /**
      * @param serialNumber
@@ -63,18 +67,35 @@ public class Mower {
         super();
         this.serialNumber = serialNumber;
 
-        // initialize scheduledDay map for each day
-        for (WorxLandroidDayCodes dayCode : WorxLandroidDayCodes.values()) {
-            scheduledDays.put(dayCode, new ScheduledDay());
-        }
+        // initialize scheduledDay for each day
+        Arrays.fill(scheduledDays, new ScheduledDay());
     }
 
-    public String getSerialNumber() {
-        return serialNumber;
+    /**
+     * Copy, modified arrays are copied because the copy is modified before it is returned.
+     *
+     * @param mower
+     */
+    private Mower(Mower mower) {
+        this.enable = mower.enable;
+        this.serialNumber = mower.serialNumber;
+        this.online = mower.online;
+        this.status = mower.status;
+        this.timeExtension = mower.timeExtension;
+        this.timeExtensionRestore = mower.timeExtensionRestore;
+        this.lockSupported = mower.lockSupported;
+        this.rainDelaySupported = mower.rainDelaySupported;
+        this.multiZoneSupported = mower.multiZoneSupported;
+        this.multiZoneEnable = mower.multiZoneEnable;
+        this.zoneMeter = mower.zoneMeter.clone();
+        // zoneMeterRestore is only replaced, never modified
+        this.zoneMeterRestore = mower.zoneMeterRestore;
+        this.allocations = mower.allocations.clone();
+        this.scheduledDays = mower.scheduledDays.clone();
     }
 
-    public void setSerialNumber(String serialNumber) {
-        this.serialNumber = serialNumber;
+    public String getSerialNumber() {
+        return serialNumber;
     }
 
     public int getTimeExtension() {
@@ -86,49 +107,60 @@ public class Mower {
      * timeExtension > -100 enables mowing (enable=true).
      *
      * @param timeExtension
+     * @return
      */
-    public void setTimeExtension(int timeExtension) {
+    public Mower withTimeExtension(int timeExtension) {
 
+        Mower mower = new Mower(this);
         if (timeExtension == TIME_EXTENSION_DISABLE) {
-            storeTimeExtension();
-            this.enable = false;
+            mower.storeTimeExtension();
+            mower.enable = false;
         } else {
-            this.enable = true;
+            mower.enable = true;
         }
 
-        this.timeExtension = timeExtension;
+        mower.timeExtension = timeExtension;
+        return mower;
     }
 
     public boolean isOnline() {
         return online;
     }
 
-    public void setOnline(boolean online) {
-        this.online = online;
+    public Mower withOnline(boolean online) {
+        Mower mower = new Mower(this);
+        mower.online = online;
+        return mower;
     }
 
     public boolean isLockSupported() {
         return lockSupported;
     }
 
-    public void setLockSupported(boolean lockSupported) {
-        this.lockSupported = lockSupported;
+    public Mower withLockSupported(boolean lockSupported) {
+        Mower mower = new Mower(this);
+        mower.lockSupported = lockSupported;
+        return mower;
     }
 
     public boolean isRainDelaySupported() {
         return rainDelaySupported;
     }
 
-    public void setRainDelaySupported(boolean rainDelaySupported) {
-        this.rainDelaySupported = rainDelaySupported;
+    public Mower withRainDelaySupported(boolean rainDelaySupported) {
+        Mower mower = new Mower(this);
+        mower.rainDelaySupported = rainDelaySupported;
+        return mower;
     }
 
     public boolean isMultiZoneSupported() {
         return multiZoneSupported;
     }
 
-    public void setMultiZoneSupported(boolean multiZoneSupported) {
-        this.multiZoneSupported = multiZoneSupported;
+    public Mower withMultiZoneSupported(boolean multiZoneSupported) {
+        Mower mower = new Mower(this);
+        mower.multiZoneSupported = multiZoneSupported;
+        return mower;
     }
 
     /**
@@ -137,12 +169,33 @@ public class Mower {
      * @return
      */
     public ScheduledDay getScheduledDay(WorxLandroidDayCodes dayCode) {
-        return scheduledDays.get(dayCode);
+        return scheduledDays[dayCode.getCode()];
     }
 
-    public void put(WorxLandroidDayCodes dayCode, ScheduledDay scheduledDay) {
-        scheduledDays.put(dayCode, scheduledDay);
+    /**
+     * @param dayCode
+     * @param scheduledDay
+     * @return
+     */
+    public Mower withScheduledDay(WorxLandroidDayCodes dayCode, ScheduledDay scheduledDay) {
+        Mower mower = new Mower(this);
+        mower.scheduledDays[dayCode.getCode()] = scheduledDay;
+        return mower;
+    }
 
+    /**
+     * Changes the schedule of every day in a single copy.
+     *
+     * @param update returns the new schedule of the given day
+     * @return
+     */
+    public Mower withScheduledDays(BiFunction<WorxLandroidDayCodes, ScheduledDay, ScheduledDay> update) {
+        Mower mower = new Mower(this);
+        for (WorxLandroidDayCodes dayCode : WorxLandroidDayCodes.values()) {
+            int day = dayCode.getCode();
+            mower.scheduledDays[day] = update.apply(dayCode, scheduledDays[day]);
+        }
+        return mower;
     }
 
     /**
@@ -154,20 +207,23 @@ public class Mower {
 
     /**
      * @param multiZoneEnable
+     * @return
      */
-    public void setMultiZoneEnable(boolean multiZoneEnable) {
+    public Mower withMultiZoneEnable(boolean multiZoneEnable) {
 
-        this.multiZoneEnable = multiZoneEnable;
+        Mower mower = new Mower(this);
+        mower.multiZoneEnable = multiZoneEnable;
 
         if (multiZoneEnable && isZoneMeterDisabled()) {
-            restoreZoneMeter();
-            if (isZoneMeterDisabled()) {
-                this.zoneMeter = Arrays.copyOf(MULTI_ZONE_METER_ENABLE, MULTI_ZONE_METER_ENABLE.length);
+            mower.restoreZoneMeter();
+            if (mower.isZoneMeterDisabled()) {
+                mower.zoneMeter = Arrays.copyOf(MULTI_ZONE_METER_ENABLE, MULTI_ZONE_METER_ENABLE.length);
             }
         } else {
-            storeZoneMeter();
-            this.zoneMeter = Arrays.copyOf(MULTI_ZONE_METER_DISABLE, MULTI_ZONE_METER_DISABLE.length);
+            mower.storeZoneMeter();
+            mower.zoneMeter = Arrays.copyOf(MULTI_ZONE_METER_DISABLE, MULTI_ZONE_METER_DISABLE.length);
         }
+        return mower;
     }
 
     /**
@@ -182,17 +238,22 @@ public class Mower {
         return Arrays.copyOf(zoneMeter, zoneMeter.length);
     }
 
-    public void setZoneMeters(int[] zoneMeter) {
-        this.zoneMeter = Arrays.copyOf(zoneMeter, zoneMeter.length);
+    public Mower withZoneMeters(int[] zoneMeter) {
+        Mower mower = new Mower(this);
+        mower.zoneMeter = Arrays.copyOf(zoneMeter, zoneMeter.length);
+        return mower;
     }
 
     /**
      * @param zoneIndex
      * @param meter
+     * @return
      */
-    public void setZoneMeter(int zoneIndex, int meter) {
-        zoneMeter[zoneIndex] = meter;
-        this.multiZoneEnable = !isZoneMeterDisabled();
+    public Mower withZoneMeter(int zoneIndex, int meter) {
+        Mower mower = new Mower(this);
+        mower.zoneMeter[zoneIndex] = meter;
+        mower.multiZoneEnable = !mower.isZoneMeterDisabled();
+        return mower;
     }
 
     /**
@@ -206,9 +267,22 @@ public class Mower {
     /**
      * @param allocationIndex
      * @param zoneIndex
+     * @return
      */
-    public void setAllocation(int allocationIndex, int zoneIndex) {
-        allocations[allocationIndex] = zoneIndex;
+    public Mower withAllocation(int allocationIndex, int zoneIndex) {
+        Mower mower = new Mower(this);
+        mower.allocations[allocationIndex] = zoneIndex;
+        return mower;
+    }
+
+    /**
+     * @param allocations zone index per allocation index
+     * @return
+     */
+    public Mower withAllocations(int[] allocations) {
+        Mower mower = new Mower(this);
+        mower.allocations = Arrays.copyOf(allocations, allocations.length);
+        return mower;
     }
 
     /**
@@ -224,21 +298,24 @@ public class Mower {
      * enable: timeExtension > -100
      *
      * @param enable
+     * @return
      */
-    public void setEnable(boolean enable) {
+    public Mower withEnable(boolean enable) {
 
-        this.enable = enable;
+        Mower mower = new Mower(this);
+        mower.enable = enable;
 
         if (enable && timeExtension == TIME_EXTENSION_DISABLE) {
-            restoreTimeExtension();
+            mower.restoreTimeExtension();
         } else {
-            storeTimeExtension();
-            this.timeExtension = TIME_EXTENSION_DISABLE;
+            mower.storeTimeExtension();
+            mower.timeExtension = TIME_EXTENSION_DISABLE;
         }
+        return mower;
     }
 
     /**
-     * Stores timeExtension to timeExtensionRestore for restore,
+     * Stores timeExtension to timeExtensionRestore for restore, only called on a copy.
      */
     private void storeTimeExtension() {
         if (this.timeExtension > TIME_EXTENSION_DISABLE) {
@@ -247,14 +324,14 @@ public class Mower {
     }
 
     /**
-     * Restores timeExtension from timeExtensionRestore.
+     * Restores timeExtension from timeExtensionRestore, only called on a copy.
      */
     private void restoreTimeExtension() {
         this.timeExtension = this.timeExtensionRestore;
     }
 
     /**
-     * Stores zoneMeter to zoneMeterRestore for restore,
+     * Stores zoneMeter to zoneMeterRestore for restore, only called on a copy.
      */
     private void storeZoneMeter() {
         if (!isZoneMeterDisabled()) {
@@ -263,7 +340,7 @@ public class Mower {
     }
 
     /**
-     * Restores zoneMeter from zoneMeterRestore.
+     * Restores zoneMeter from zoneMeterRestore, only called on a copy.
      */
     private void restoreZoneMeter() {
         this.zoneMeter = Arrays.copyOf(zoneMeterRestore, zoneMeterRestore.length);
@@ -294,9 +371,11 @@ public class Mower {
 
     /**
      * @param status
+     * @return
      */
-    public void setStatus(long status) {
-        this.status = status;
+    public Mower withStatus(long status) {
+        Mower mower = new Mower(this);
+        mower.status = status;
+        return mower;
     }
-
 }
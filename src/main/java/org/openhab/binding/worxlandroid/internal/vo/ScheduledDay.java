@@ -13,43 +13,52 @@
 package org.openhab.binding.worxlandroid.internal.vo;
 
 /**
- * {@link ScheduledDay}
+ * {@link ScheduledDay} immutable schedule of a day, changes return a new instance.
  *
  * @author Nils - Initial contribution
  */
-public class ScheduledDay {
+public final class ScheduledDay {
 
     private static final int DURATION_0 = 0;
     private static final int DURATION_DEFAULT = 15;
 
-    private boolean enable;
-    private int hour;
-    private int minutes;
-    private int duration;
-    private int durationRestore = DURATION_DEFAULT;
-    private boolean edgecut;
+    private final boolean enable;
+    private final int hour;
+    private final int minutes;
+    private final int duration;
+    private final int durationRestore;
+    private final boolean edgecut;
 
     /**
-     *
+     * Disabled day starting at 00:00
      */
     public ScheduledDay() {
-        super();
+        this(false, 0, 0, 0, DURATION_DEFAULT, false);
+    }
+
+    private ScheduledDay(boolean enable, int hour, int minutes, int duration, int durationRestore, boolean edgecut) {
+        this.enable = enable;
+        this.hour = hour;
+        this.minutes = minutes;
+        this.duration = duration;
+        this.durationRestore = durationRestore;
+        this.edgecut = edgecut;
     }
 
     public int getHour() {
         return hour;
     }
 
-    public void setHours(int hour) {
-        this.hour = hour;
+    public ScheduledDay withHours(int hour) {
+        return new ScheduledDay(enable, hour, minutes, duration, durationRestore, edgecut);
     }
 
     public int getMinutes() {
         return minutes;
     }
 
-    public void setMinutes(int minutes) {
-        this.minutes = minutes;
+    public ScheduledDay withMinutes(int minutes) {
+        return new ScheduledDay(enable, hour, minutes, duration, durationRestore, edgecut);
     }
 
     public int getDuration() {
@@ -61,25 +70,22 @@ public class ScheduledDay {
      * duration > 0 enables this scheduled day (enable=true).
      *
      * @param duration
+     * @return
      */
-    public void setDuration(int duration) {
+    public ScheduledDay withDuration(int duration) {
 
         if (duration == DURATION_0) {
-            storeDuration();
-            this.enable = false;
-        } else {
-            this.enable = true;
+            return new ScheduledDay(false, hour, minutes, duration, storeDuration(), edgecut);
         }
-
-        this.duration = duration;
+        return new ScheduledDay(true, hour, minutes, duration, durationRestore, edgecut);
     }
 
     public boolean isEdgecut() {
         return edgecut;
     }
 
-    public void setEdgecut(boolean edgecut) {
-        this.edgecut = edgecut;
+    public ScheduledDay withEdgecut(boolean edgecut) {
+        return new ScheduledDay(enable, hour, minutes, duration, durationRestore, edgecut);
     }
 
     public boolean isEnable() {
@@ -90,32 +96,27 @@ public class ScheduledDay {
      * Enable/Disables scheduling using duration.
      *
      * @param enable
+     * @return
      */
-    public void setEnable(boolean enable) {
-
-        this.enable = enable;
+    public ScheduledDay withEnable(boolean enable) {
 
         if (enable && duration == DURATION_0) {
-            restoreDuration();
-        } else {
-            storeDuration();
-            this.duration = DURATION_0;
+            // restore duration from durationRestore
+            return new ScheduledDay(true, hour, minutes, durationRestore, durationRestore, edgecut);
         }
+        return new ScheduledDay(enable, hour, minutes, DURATION_0, storeDuration(), edgecut);
     }
 
     /**
-     * Retores duration from durationRestore.
+     * @return duration to restore when this day is enabled again
      */
-    private void storeDuration() {
-        if (this.duration > DURATION_0) {
-            this.durationRestore = this.duration;
-        }
+    private int storeDuration() {
+        return duration > DURATION_0 ? duration : durationRestore;
     }
 
-    /**
-     * Stores duration to durationRestore for restore,
-     */
-    private void restoreDuration() {
-        this.duration = this.durationRestore;
+    @Override
+    public String toString() {
+        return String.format("ScheduledDay [enable='%b', hour='%d', minutes='%d', duration='%d', edgecut='%b']",
+                enable, hour, minutes, duration, edgecut);
     }
 }
@@ -62,6 +62,15 @@ public interface WorxLandroidApi {
      */
     public ProductItemsResponse retrieveUserDevices() throws WebApiException;
 
+    /**
+     * Retrieve a single device of user
+     *
+     * @param serialNumber
+     * @return
+     * @throws WebApiException
+     */
+    public ProductItemsResponse retrieveUserDevice(String serialNumber) throws WebApiException;
+
     /**
      * Retrieve product information
      *
@@ -104,6 +104,18 @@ public class WorxLandroidWebApiImpl implements WorxLandroidApi {
 
     }
 
+    @Override
+    public ProductItemsResponse retrieveUserDevice(String serialNumber) throws WebApiException {
+
+        if (apiAuth == null) {
+            throw new WebApiException("Worx Landroid WebApi not connected!");
+        }
+
+        ProductItemsRequest productItemsRequest = new ProductItemsRequest(httpClient);
+        return productItemsRequest.call(apiAuth, serialNumber);
+
+    }
+
     @Override
     public ProductItemsStatusResponse retrieveDeviceStatus(String serialNumber) throws WebApiException {
 
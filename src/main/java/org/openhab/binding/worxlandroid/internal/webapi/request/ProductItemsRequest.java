@@ -46,4 +46,15 @@ public class ProductItemsRequest extends WebApiRequest<ProductItemsResponse> {
         return callWebApiGet(APIURL_PRODUCTITEMS, auth);
     }
 
+    /**
+     * @param auth
+     * @param serialNumber
+     * @return
+     * @throws WebApiException
+     */
+    public ProductItemsResponse call(WebApiAuth auth, String serialNumber) throws WebApiException {
+
+        return callWebApiGet(String.format("%s/%s", APIURL_PRODUCTITEMS, serialNumber), auth);
+    }
+
 }
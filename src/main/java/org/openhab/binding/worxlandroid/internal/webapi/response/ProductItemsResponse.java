@@ -66,6 +66,14 @@ public class ProductItemsResponse extends WebApiResponse {
                         }
                     }
                 }
+            } else if (jsonResponse.isJsonObject()) {
+
+                // response of a single product item
+                JsonObject jsonObject = jsonResponse.getAsJsonObject();
+                JsonElement id = jsonObject.get("serial_number");
+                if (id != null && serialNumber.equals(id.getAsString())) {
+                    return jsonObject;
+                }
             }
         }
         logger.warn("No data for mower serialnumber: {}", serialNumber);
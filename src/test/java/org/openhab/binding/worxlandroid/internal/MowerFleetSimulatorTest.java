@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal;
+
+import static org.junit.Assert.*;
+import static org.openhab.binding.worxlandroid.internal.WorxLandroidBindingConstants.THING_TYPE_MOWER;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.Assume;
+import org.junit.Test;
+import org.openhab.binding.worxlandroid.internal.mqtt.AWSClientCallback;
+import org.openhab.binding.worxlandroid.internal.mqtt.AWSSubscriptionRegistry;
+import org.openhab.binding.worxlandroid.internal.mqtt.MqttMetrics;
+import org.openhab.binding.worxlandroid.internal.mqtt.PahoClient;
+import org.openhab.binding.worxlandroid.internal.mqtt.ReconnectPolicy;
+import org.openhab.binding.worxlandroid.internal.simulator.MowerFleetSimulator;
+import org.openhab.binding.worxlandroid.internal.simulator.SimulatedMower;
+
+import com.amazonaws.services.iot.client.AWSIotMessage;
+import com.amazonaws.services.iot.client.AWSIotQos;
+
+/**
+ * Scale test against a {@link MowerFleetSimulator} on a local MQTT broker: every virtual mower is polled once and its
+ * messages are processed by a mower handler for the configured duration. The test is skipped unless a broker is
+ * given, e.g.
+ *
+ * <pre>
+ * mvn test -Dtest=MowerFleetSimulatorTest -Dsimulator.broker=tcp://localhost:1883 -Dsimulator.mowers=1000
+ * </pre>
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class MowerFleetSimulatorTest {
+
+    // max. time in seconds to wait for the answers to the initial polls
+    private static final int ANSWER_TIMEOUT = 60;
+
+    @Test
+    public void processFleetMessages() throws Exception {
+
+        String broker = System.getProperty("simulator.broker");
+        Assume.assumeTrue("no simulator.broker given", broker != null);
+
+        int mowers = Integer.getInteger("simulator.mowers", 100);
+        int reportInterval = Integer.getInteger("simulator.reportInterval", 60);
+        long duration = TimeUnit.SECONDS.toMillis(Integer.getInteger("simulator.duration", 0));
+        String username = System.getProperty("simulator.username", "");
+        String password = System.getProperty("simulator.password", "");
+
+        MqttMetrics metrics = new MqttMetrics();
+        AWSSubscriptionRegistry registry = new AWSSubscriptionRegistry(metrics);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        MowerFleetSimulator simulator = new MowerFleetSimulator(mowers, broker, username, password, reportInterval,
+                metrics);
+        PahoClient client = new PahoClient(broker, "openhab-" + MqttAsyncClient.generateClientId(), username,
+                password, new RegistryCallback(registry), new ReconnectPolicy(1000, 1000, 10000), scheduler);
+
+        Set<String> answered = ConcurrentHashMap.newKeySet();
+        AtomicLong processed = new AtomicLong();
+        try {
+            simulator.start();
+            registry.setClients(Collections.singletonList(client));
+            client.connect();
+
+            for (SimulatedMower mower : simulator.getMowers()) {
+                String serialNumber = mower.getSerialNumber();
+                Thing thing = ThingBuilder.create(THING_TYPE_MOWER, new ThingUID(THING_TYPE_MOWER, serialNumber))
+                        .build();
+                SilentHandler handler = new SilentHandler(thing);
+                handler.updateSupportedFeatures(true, true, true);
+                registry.subscribe(serialNumber, mower.getCommandOut(), message -> {
+                    if (message != null && handler.processPayload(message.getStringPayload())) {
+                        processed.incrementAndGet();
+                        answered.add(serialNumber);
+                    }
+                });
+            }
+            for (SimulatedMower mower : simulator.getMowers()) {
+                client.publish(new AWSIotMessage(mower.getCommandIn(), AWSIotQos.QOS0, "{}"));
+            }
+
+            long start = System.currentTimeMillis();
+            long deadline = start + TimeUnit.SECONDS.toMillis(ANSWER_TIMEOUT);
+            while (answered.size() < mowers && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            long remaining = start + duration - System.currentTimeMillis();
+            if (remaining > 0) {
+                Thread.sleep(remaining);
+            }
+        } finally {
+            simulator.stop();
+            client.disconnect();
+            scheduler.shutdownNow();
+        }
+
+        Map<String, Integer> subscriptions = registry.getActiveSubscriptions();
+        assertEquals(mowers, subscriptions.size());
+        assertEquals("mowers without answer", mowers, answered.size());
+        assertTrue(processed.get() >= mowers);
+    }
+
+    /**
+     * Tracks the connection of the single client like the bridge, subscriptions are restored after a reconnect.
+     */
+    private static class RegistryCallback implements AWSClientCallback {
+
+        private final AWSSubscriptionRegistry registry;
+
+        RegistryCallback(AWSSubscriptionRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void onAWSConnectionSuccess() {
+            registry.setConnected(0, true);
+            registry.resubscribeAll();
+        }
+
+        @Override
+        public void onAWSConnectionFailure() {
+            registry.setConnected(0, false);
+        }
+
+        @Override
+        public void onAWSConnectionClosed() {
+            registry.setConnected(0, false);
+        }
+    }
+
+    /**
+     * Mower handler without framework, channel updates are dropped.
+     */
+    private static class SilentHandler extends WorxLandroidMowerHandler {
+
+        SilentHandler(Thing thing) {
+            super(thing);
+        }
+
+        @Override
+        protected void updateState(String channelID, State state) {
+        }
+
+        @Override
+        protected void updateState(ChannelUID channelUID, State state) {
+        }
+
+        @Override
+        protected void triggerChannel(String channelID, String event) {
+        }
+    }
+}
@@ -0,0 +1,360 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal;
+
+import static org.openhab.binding.worxlandroid.internal.WorxLandroidBindingConstants.THING_TYPE_MOWER;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.worxlandroid.internal.mqtt.ArchivedMessage;
+import org.openhab.binding.worxlandroid.internal.mqtt.MessageArchive;
+
+/**
+ * The {@link MowerReplayHarness} replays recorded MQTT sessions through the message processing of the
+ * {@link WorxLandroidMowerHandler} (processStatusMessage, updateStateCfg, updateStateDat) to check the resulting
+ * channel states and to measure the throughput.
+ *
+ * A recording is a file with one raw 'command_out' payload per line (*.jsonl) or a segment of the message archive of
+ * a bridge (segment-*.bin, one session per mower). The channel states after the replay are compared with the golden
+ * file next to the recording (&lt;recording&gt;.golden, one 'channel=state' line per channel).
+ *
+ * The handler is not initialized and not connected to the framework, channel updates are only counted and recorded.
+ * All optional features (lock, rain delay, multizone) are enabled.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class MowerReplayHarness {
+
+    private static final String RECORDING_SUFFIX = ".jsonl";
+    private static final String SEGMENT_SUFFIX = ".bin";
+    private static final String GOLDEN_SUFFIX = ".golden";
+
+    private MowerReplayHarness() {
+    }
+
+    /**
+     * Replay payloads once to record the channel states, then the given number of times to measure the throughput.
+     * Each pass uses a new handler, so all passes start from the same state.
+     *
+     * @param payloads raw payloads in receive order
+     * @param iterations number of measured passes
+     * @return result of the replay
+     */
+    public static ReplayResult replay(List<String> payloads, int iterations) {
+
+        Thing thing = ThingBuilder.create(THING_TYPE_MOWER, new ThingUID(THING_TYPE_MOWER, "replay")).build();
+
+        RecordingHandler recordingHandler = new RecordingHandler(thing, true);
+        replayPass(recordingHandler, payloads);
+
+        // warm up with the same number of passes, not measured
+        for (int i = 0; i < iterations; i++) {
+            replayPass(new RecordingHandler(thing, false), payloads);
+        }
+
+        long updates = 0;
+        long triggers = 0;
+        long allocatedBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            RecordingHandler handler = new RecordingHandler(thing, false);
+            replayPass(handler, payloads);
+            updates += handler.updates;
+            triggers += handler.triggers;
+        }
+        long duration = System.nanoTime() - start;
+        long allocatedAfter = getAllocatedBytes();
+
+        long messages = (long) payloads.size() * iterations;
+        return new ReplayResult(payloads.size(), messages, duration, updates, triggers,
+                allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore,
+                recordingHandler.errors, recordingHandler.states);
+    }
+
+    private static void replayPass(RecordingHandler handler, List<String> payloads) {
+        for (String payload : payloads) {
+            try {
+                handler.processPayload(payload);
+            } catch (RuntimeException e) {
+                // counted like the handler logs and skips it
+                handler.errors++;
+            }
+        }
+    }
+
+    /**
+     * @return bytes allocated by the current thread, -1 if not supported by the JVM
+     */
+    private static long getAllocatedBytes() {
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        try {
+            // com.sun.management is not exported to bundles, use reflection
+            Method method = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes",
+                    long.class);
+            return (Long) method.invoke(bean, Thread.currentThread().getId());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Read the sessions of a recording.
+     *
+     * @param recording *.jsonl file or archive segment
+     * @return session name -> payloads
+     * @throws IOException
+     */
+    public static Map<String, List<String>> readRecording(Path recording) throws IOException {
+
+        Map<String, List<String>> sessions = new LinkedHashMap<>();
+        String name = recording.getFileName().toString();
+
+        if (name.endsWith(SEGMENT_SUFFIX)) {
+            for (ArchivedMessage message : MessageArchive.read(recording)) {
+                if (message.isInbound()) {
+                    sessions.computeIfAbsent(name + "-" + message.getSerialNumber(), k -> new ArrayList<>())
+                            .add(new String(message.getPayload(), StandardCharsets.UTF_8));
+                }
+            }
+            return sessions;
+        }
+
+        List<String> payloads = new ArrayList<>();
+        for (String line : Files.readAllLines(recording, StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) {
+                payloads.add(line);
+            }
+        }
+        sessions.put(name, payloads);
+        return sessions;
+    }
+
+    /**
+     * @param golden golden file
+     * @return channel -> state, null if the file does not exist
+     * @throws IOException
+     */
+    public static @Nullable Map<String, String> readGolden(Path golden) throws IOException {
+
+        if (!Files.exists(golden)) {
+            return null;
+        }
+
+        Map<String, String> states = new TreeMap<>();
+        for (String line : Files.readAllLines(golden, StandardCharsets.UTF_8)) {
+            int separator = line.indexOf('=');
+            if (separator > 0) {
+                states.put(line.substring(0, separator), line.substring(separator + 1));
+            }
+        }
+        return states;
+    }
+
+    /**
+     * @param golden golden file
+     * @param states channel -> state
+     * @throws IOException
+     */
+    public static void writeGolden(Path golden, Map<String, String> states) throws IOException {
+
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, String> entry : new TreeMap<>(states).entrySet()) {
+            lines.add(entry.getKey() + "=" + entry.getValue());
+        }
+        Files.write(golden, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param expected golden states
+     * @param actual replayed states
+     * @return differences, empty if equal
+     */
+    public static List<String> compare(Map<String, String> expected, Map<String, String> actual) {
+
+        List<String> differences = new ArrayList<>();
+        TreeSet<String> channels = new TreeSet<>(expected.keySet());
+        channels.addAll(actual.keySet());
+        for (String channel : channels) {
+            String expectedState = expected.get(channel);
+            String actualState = actual.get(channel);
+            if (expectedState == null || !expectedState.equals(actualState)) {
+                differences.add(String.format("%s: expected '%s', actual '%s'", channel, expectedState, actualState));
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * @param directory
+     * @return recordings of the directory, sorted by name
+     * @throws IOException
+     */
+    public static List<Path> listRecordings(Path directory) throws IOException {
+
+        List<Path> recordings = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(RECORDING_SUFFIX) || name.endsWith(SEGMENT_SUFFIX)) {
+                    recordings.add(path);
+                }
+            }
+        }
+        recordings.sort(null);
+        return recordings;
+    }
+
+    /**
+     * @param directory directory of the recording
+     * @param session session name
+     * @return golden file of the session
+     */
+    public static Path getGolden(Path directory, String session) {
+        return directory.resolve(session + GOLDEN_SUFFIX);
+    }
+
+    /**
+     * Mower handler which records channel updates instead of passing them to the framework.
+     */
+    private static class RecordingHandler extends WorxLandroidMowerHandler {
+
+        private final boolean recordStates;
+        private final Map<String, String> states = new TreeMap<>();
+        private long updates;
+        private long triggers;
+        private int errors;
+
+        RecordingHandler(Thing thing, boolean recordStates) {
+            super(thing);
+            this.recordStates = recordStates;
+            updateSupportedFeatures(true, true, true);
+        }
+
+        @Override
+        protected void updateState(String channelID, State state) {
+            updates++;
+            if (recordStates) {
+                states.put(channelID, state.toFullString());
+            }
+        }
+
+        @Override
+        protected void updateState(ChannelUID channelUID, State state) {
+            updateState(channelUID.getId(), state);
+        }
+
+        @Override
+        protected void triggerChannel(String channelID, String event) {
+            triggers++;
+        }
+    }
+
+    /**
+     * Result of replaying a session.
+     */
+    public static class ReplayResult {
+
+        private final int sessionMessages;
+        private final long messages;
+        private final long duration;
+        private final long updates;
+        private final long triggers;
+        private final long allocatedBytes;
+        private final int errors;
+        private final Map<String, String> states;
+
+        ReplayResult(int sessionMessages, long messages, long duration, long updates, long triggers,
+                long allocatedBytes, int errors, Map<String, String> states) {
+            this.sessionMessages = sessionMessages;
+            this.messages = messages;
+            this.duration = duration;
+            this.updates = updates;
+            this.triggers = triggers;
+            this.allocatedBytes = allocatedBytes;
+            this.errors = errors;
+            this.states = states;
+        }
+
+        /**
+         * @return processed messages per second
+         */
+        public double getMessagesPerSecond() {
+            return duration == 0 ? 0 : messages * 1e9 / duration;
+        }
+
+        /**
+         * @return channel updates per message
+         */
+        public double getUpdatesPerMessage() {
+            return messages == 0 ? 0 : (double) updates / messages;
+        }
+
+        /**
+         * @return channel triggers per message
+         */
+        public double getTriggersPerMessage() {
+            return messages == 0 ? 0 : (double) triggers / messages;
+        }
+
+        /**
+         * @return allocated bytes per message, -1 if not supported by the JVM
+         */
+        public long getAllocatedBytesPerMessage() {
+            return allocatedBytes < 0 || messages == 0 ? -1 : allocatedBytes / messages;
+        }
+
+        /**
+         * @return messages of the session which could not be processed
+         */
+        public int getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return channel -> state after the replay
+         */
+        public Map<String, String> getStates() {
+            return states;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d messages (%d errors), %.0f msg/s, %.2f updates/msg, %.2f triggers/msg, %d bytes/msg allocated, %d channels",
+                    sessionMessages, errors, getMessagesPerSecond(), getUpdatesPerMessage(), getTriggersPerMessage(),
+                    getAllocatedBytesPerMessage(), states.size());
+        }
+    }
+}
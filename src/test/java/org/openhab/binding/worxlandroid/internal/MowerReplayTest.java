@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openhab.binding.worxlandroid.internal.MowerReplayHarness.ReplayResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays the recorded sessions of src/test/resources/replay and compares the channel states with their golden files.
+ * The sessions are replayed in UTC, so the golden states do not depend on the time zone of the host.
+ *
+ * System properties:
+ * <ul>
+ * <li>replay.directory: replay the recordings of another directory, e.g. archive segments of a bridge</li>
+ * <li>replay.iterations: number of measured passes per session to log the throughput, default 0</li>
+ * <li>replay.update=true: write the golden files instead of comparing them</li>
+ * </ul>
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class MowerReplayTest {
+
+    private static final String RECORDINGS = "src/test/resources/replay";
+
+    private static @Nullable TimeZone defaultTimeZone;
+
+    private final Logger logger = LoggerFactory.getLogger(MowerReplayTest.class);
+
+    @BeforeClass
+    public static void setUpTimeZone() {
+        defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @AfterClass
+    public static void restoreTimeZone() {
+        TimeZone.setDefault(defaultTimeZone);
+    }
+
+    @Test
+    public void replayRecordings() throws IOException, URISyntaxException {
+
+        boolean update = Boolean.getBoolean("replay.update");
+        int iterations = Integer.getInteger("replay.iterations", 0);
+        Path directory = getDirectory(update);
+
+        List<Path> recordings = MowerReplayHarness.listRecordings(directory);
+        assertFalse("no recordings in " + directory, recordings.isEmpty());
+
+        List<String> failures = new ArrayList<>();
+        for (Path recording : recordings) {
+            for (Map.Entry<String, List<String>> session : MowerReplayHarness.readRecording(recording).entrySet()) {
+
+                ReplayResult result = MowerReplayHarness.replay(session.getValue(), iterations);
+                logger.info("{}: {}", session.getKey(), result);
+
+                if (result.getErrors() > 0) {
+                    failures.add(session.getKey() + ": " + result.getErrors() + " messages not processed");
+                }
+
+                Path golden = MowerReplayHarness.getGolden(directory, session.getKey());
+                if (update) {
+                    MowerReplayHarness.writeGolden(golden, result.getStates());
+                    logger.info("{}: golden states written to {}", session.getKey(), golden);
+                    continue;
+                }
+
+                Map<String, String> expected = MowerReplayHarness.readGolden(golden);
+                if (expected == null) {
+                    failures.add(session.getKey() + ": no golden file, run with -Dreplay.update=true");
+                    continue;
+                }
+                for (String difference : MowerReplayHarness.compare(expected, result.getStates())) {
+                    failures.add(session.getKey() + ": " + difference);
+                }
+            }
+        }
+
+        assertTrue(String.join("\n", failures), failures.isEmpty());
+    }
+
+    private Path getDirectory(boolean update) throws URISyntaxException {
+
+        String directory = System.getProperty("replay.directory");
+        if (directory != null) {
+            return Paths.get(directory);
+        }
+        if (update) {
+            // golden files are written to the sources, not to the copied test resources
+            return Paths.get(RECORDINGS);
+        }
+
+        URL resource = getClass().getResource("/replay");
+        assertNotNull("test resources not found: /replay", resource);
+        return Paths.get(resource.toURI());
+    }
+}
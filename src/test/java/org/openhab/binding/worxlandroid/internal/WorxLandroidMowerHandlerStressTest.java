@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal;
+
+import static org.junit.Assert.*;
+import static org.openhab.binding.worxlandroid.internal.WorxLandroidBindingConstants.THING_TYPE_MOWER;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Sends schedule and zone meter commands while 'cfg' documents of the mower are processed in parallel. Every
+ * schedule and zone meter payload sent has to contain a week and zone meters of a single 'cfg' document, never a mix
+ * of two.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class WorxLandroidMowerHandlerStressTest {
+
+    private static final int ROUNDS = 20000;
+
+    // every day of the week: start, duration, edgecut
+    private static final String[] WEEK_A = { "10:00", "60", "0" };
+    private static final String[] WEEK_B = { "14:30", "90", "1" };
+
+    // zone meters 2-4, zone 1 is changed by the commands
+    private static final int[] ZONES_A = { 20, 30, 40 };
+    private static final int[] ZONES_B = { 60, 70, 80 };
+
+    @Test
+    public void commandsDoNotSendTornState() throws Exception {
+
+        Thing thing = ThingBuilder.create(THING_TYPE_MOWER, new ThingUID(THING_TYPE_MOWER, "stress")).build();
+        CapturingHandler handler = new CapturingHandler(thing);
+        handler.updateSupportedFeatures(true, true, true);
+
+        String cfgA = createCfg(WEEK_A, 10, ZONES_A);
+        String cfgB = createCfg(WEEK_B, 50, ZONES_B);
+        handler.processPayload(cfgA);
+
+        ChannelUID sundayStartHour = new ChannelUID(thing.getUID(), "cfgScSunday#scheduleStartHour");
+        ChannelUID zone1Meter = new ChannelUID(thing.getUID(), "cfgMultiZones#zone1Meter");
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> cfgUpdates = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ROUNDS; i++) {
+                    handler.processPayload(i % 2 == 0 ? cfgB : cfgA);
+                }
+                return null;
+            });
+            Future<?> commands = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ROUNDS; i++) {
+                    handler.dispatchCommand(sundayStartHour, new DecimalType(7 + i % 2));
+                    handler.dispatchCommand(zone1Meter, new DecimalType(5 + i % 2));
+                }
+                return null;
+            });
+            start.countDown();
+            cfgUpdates.get(1, TimeUnit.MINUTES);
+            commands.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2 * ROUNDS, handler.payloads.size());
+
+        List<String> torn = new ArrayList<>();
+        for (String payload : handler.payloads) {
+            JsonObject json = new JsonParser().parse(payload).getAsJsonObject();
+            if (json.has("sc")) {
+                if (!isWeek(json.getAsJsonObject("sc").getAsJsonArray("d"), WEEK_A)
+                        && !isWeek(json.getAsJsonObject("sc").getAsJsonArray("d"), WEEK_B)) {
+                    torn.add(payload);
+                }
+            } else if (json.has("mz")) {
+                if (!isZones(json.getAsJsonArray("mz"), ZONES_A) && !isZones(json.getAsJsonArray("mz"), ZONES_B)) {
+                    torn.add(payload);
+                }
+            } else {
+                fail("unexpected payload " + payload);
+            }
+        }
+        assertTrue(torn.size() + " torn payloads, e.g. " + (torn.isEmpty() ? "" : torn.get(0)), torn.isEmpty());
+    }
+
+    /**
+     * @return true if all days are from the given week, only the start hour of sunday may differ
+     */
+    private static boolean isWeek(JsonArray days, String[] week) {
+
+        String minutes = week[0].substring(week[0].indexOf(':'));
+        for (int day = 0; day < days.size(); day++) {
+            JsonArray scheduledDay = days.get(day).getAsJsonArray();
+            String time = scheduledDay.get(0).getAsString();
+            if (day == 0 ? !time.endsWith(minutes) : !time.equals(week[0])) {
+                return false;
+            }
+            if (!scheduledDay.get(1).getAsString().equals(week[1])
+                    || !scheduledDay.get(2).getAsString().equals(week[2])) {
+                return false;
+            }
+        }
+        return days.size() == 7;
+    }
+
+    /**
+     * @return true if zones 2-4 are the given zones, zone 1 may differ
+     */
+    private static boolean isZones(JsonArray meters, int[] zones) {
+
+        for (int zoneIndex = 0; zoneIndex < zones.length; zoneIndex++) {
+            if (meters.get(zoneIndex + 1).getAsInt() != zones[zoneIndex]) {
+                return false;
+            }
+        }
+        return meters.size() == zones.length + 1;
+    }
+
+    private static String createCfg(String[] week, int zone1, int[] zones) {
+
+        StringBuilder days = new StringBuilder();
+        for (int day = 0; day < 7; day++) {
+            days.append(day > 0 ? "," : "").append("[\"").append(week[0]).append("\",").append(week[1]).append(',')
+                    .append(week[2]).append(']');
+        }
+        return "{\"cfg\":{\"id\":0,\"lg\":\"de\",\"sc\":{\"m\":1,\"p\":0,\"d\":[" + days + "]},\"cmd\":0,\"mz\":["
+                + zone1 + "," + zones[0] + "," + zones[1] + "," + zones[2]
+                + "],\"mzv\":[0,0,0,0,0,0,0,0,0,0],\"rd\":0,\"sn\":\"20190000000000000001\"},"
+                + "\"dat\":{\"fw\":3.51,\"ls\":1,\"le\":0}}";
+    }
+
+    /**
+     * Mower handler which captures the sent payloads instead of publishing them.
+     */
+    private static class CapturingHandler extends WorxLandroidMowerHandler {
+
+        private final Queue<String> payloads = new ConcurrentLinkedQueue<>();
+
+        CapturingHandler(Thing thing) {
+            super(thing);
+        }
+
+        @Override
+        void sendCommand(byte[] cmd) {
+            payloads.add(new String(cmd, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        protected void updateState(String channelID, State state) {
+        }
+
+        @Override
+        protected void updateState(ChannelUID channelUID, State state) {
+        }
+
+        @Override
+        protected void triggerChannel(String channelID, String event) {
+        }
+    }
+}
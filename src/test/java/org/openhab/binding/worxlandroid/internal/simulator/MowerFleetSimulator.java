@@ -0,0 +1,312 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.simulator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.openhab.binding.worxlandroid.internal.mqtt.LagStats;
+import org.openhab.binding.worxlandroid.internal.mqtt.MqttMetrics;
+import org.openhab.binding.worxlandroid.internal.mqtt.TrafficStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * {@link MowerFleetSimulator} acts as a fleet of virtual mowers on a local MQTT broker, for scale tests without real
+ * mowers.
+ *
+ * Each {@link SimulatedMower} answers polls and commands on its 'commandIn' topic with a status document on its
+ * 'commandOut' topic and sends a spontaneous report once per report interval (spread over the interval). Every
+ * minute a summary with the traffic of the simulator, the metrics of the receiving side, heap and CPU usage of the
+ * process is logged. The simulator runs on its own thread, not on a scheduler shared with the code under test.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class MowerFleetSimulator implements MqttCallbackExtended {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MowerFleetSimulator.class);
+
+    public static final String TOPIC_PREFIX = "SIM";
+
+    private static final long OPERATION_TIMEOUT = 30000;
+    private static final int SUMMARY_INTERVAL = 60;
+    private static final double[] PERCENTILES = { 50, 95 };
+
+    private final String brokerUri;
+    private final MqttAsyncClient client;
+    private final MqttConnectOptions connectOptions = new MqttConnectOptions();
+    private final @Nullable MqttMetrics metrics;
+    private @Nullable ScheduledExecutorService scheduler;
+    private final int reportInterval;
+
+    private final List<SimulatedMower> mowers;
+    // commandIn topic -> mower
+    private final Map<String, SimulatedMower> mowersByTopic = new HashMap<>();
+    // serial number -> mower
+    private final Map<String, SimulatedMower> mowersBySerialNumber = new HashMap<>();
+
+    private final AtomicLong commandsReceived = new AtomicLong();
+    private final AtomicLong reportsSent = new AtomicLong();
+
+    private @Nullable ScheduledFuture<?> reportJob;
+    private @Nullable ScheduledFuture<?> summaryJob;
+    private int nextReport;
+    private long lastCpuTime = -1;
+    private long lastSummaryTime;
+
+    /**
+     * @param count number of virtual mowers
+     * @param brokerUri local broker, e.g. tcp://localhost:1883
+     * @param username may be null or empty
+     * @param password may be null or empty
+     * @param reportInterval interval in seconds of spontaneous reports of each mower
+     * @param metrics metrics of the receiving side, reported in the summary, may be null
+     * @throws MqttException if the broker URI is invalid
+     */
+    public MowerFleetSimulator(int count, String brokerUri, @Nullable String username, @Nullable String password,
+            int reportInterval, @Nullable MqttMetrics metrics) throws MqttException {
+
+        this.brokerUri = brokerUri;
+        this.reportInterval = Math.max(1, reportInterval);
+        this.metrics = metrics;
+
+        List<SimulatedMower> mowers = new ArrayList<>(count);
+        for (int index = 1; index <= count; index++) {
+            SimulatedMower mower = new SimulatedMower(index, TOPIC_PREFIX);
+            mowers.add(mower);
+            mowersByTopic.put(mower.getCommandIn(), mower);
+            mowersBySerialNumber.put(mower.getSerialNumber(), mower);
+        }
+        this.mowers = Collections.unmodifiableList(mowers);
+
+        client = new MqttAsyncClient(brokerUri, "simulator-" + MqttAsyncClient.generateClientId(),
+                new MemoryPersistence());
+        client.setCallback(this);
+        connectOptions.setCleanSession(true);
+        connectOptions.setAutomaticReconnect(true);
+        connectOptions.setMaxInflight(Math.max(10, count));
+        if (username != null && !username.isEmpty()) {
+            connectOptions.setUserName(username);
+            if (password != null) {
+                connectOptions.setPassword(password.toCharArray());
+            }
+        }
+    }
+
+    /**
+     * Connect to the broker and start the reports of all mowers.
+     *
+     * @throws MqttException
+     */
+    public void start() throws MqttException {
+
+        LOGGER.info("start simulation of {} mowers on {}", mowers.size(), brokerUri);
+        client.connect(connectOptions).waitForCompletion(OPERATION_TIMEOUT);
+
+        lastSummaryTime = System.nanoTime();
+        lastCpuTime = getProcessCpuTime();
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.scheduler = scheduler;
+
+        // a share of the mowers reports every second, each mower once per interval
+        reportJob = scheduler.scheduleWithFixedDelay(this::sendReports, 1, 1, TimeUnit.SECONDS);
+        summaryJob = scheduler.scheduleWithFixedDelay(this::logSummary, SUMMARY_INTERVAL, SUMMARY_INTERVAL,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop reports and disconnect.
+     */
+    public void stop() {
+
+        ScheduledFuture<?> job = reportJob;
+        if (job != null) {
+            job.cancel(true);
+        }
+        job = summaryJob;
+        if (job != null) {
+            job.cancel(true);
+        }
+        ScheduledExecutorService scheduler = this.scheduler;
+        this.scheduler = null;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+
+        try {
+            if (client.isConnected()) {
+                client.disconnect().waitForCompletion(OPERATION_TIMEOUT);
+            }
+            client.close();
+        } catch (MqttException e) {
+            LOGGER.debug("disconnect of simulator failed -> {}", e.getMessage());
+        }
+    }
+
+    public String getBrokerUri() {
+        return brokerUri;
+    }
+
+    public List<SimulatedMower> getMowers() {
+        return mowers;
+    }
+
+    /**
+     * @param serialNumber
+     * @return mower, null if unknown
+     */
+    public @Nullable SimulatedMower getMower(String serialNumber) {
+        return mowersBySerialNumber.get(serialNumber);
+    }
+
+    @Override
+    public void connectComplete(boolean reconnect, String serverURI) {
+
+        try {
+            client.subscribe(TOPIC_PREFIX + "/+/commandIn", 0);
+        } catch (MqttException e) {
+            LOGGER.warn("simulator subscription failed -> {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void connectionLost(@Nullable Throwable cause) {
+        LOGGER.debug("simulator connection lost -> {}", cause == null ? "" : cause.getMessage());
+    }
+
+    @Override
+    public void messageArrived(@Nullable String topic, @Nullable MqttMessage message) {
+
+        SimulatedMower mower = topic == null ? null : mowersByTopic.get(topic);
+        if (mower == null || message == null) {
+            return;
+        }
+        commandsReceived.incrementAndGet();
+
+        try {
+            JsonElement command = new JsonParser().parse(new String(message.getPayload(), StandardCharsets.UTF_8));
+            if (command.isJsonObject()) {
+                mower.handleCommand(command.getAsJsonObject());
+            }
+        } catch (JsonSyntaxException | IllegalStateException e) {
+            LOGGER.debug("invalid command for mower {} -> {}", mower.getSerialNumber(), e.getMessage());
+        }
+        publishStatus(mower);
+    }
+
+    @Override
+    public void deliveryComplete(@Nullable IMqttDeliveryToken token) {
+    }
+
+    private void sendReports() {
+
+        if (!client.isConnected()) {
+            return;
+        }
+
+        int count = (mowers.size() + reportInterval - 1) / reportInterval;
+        for (int i = 0; i < count; i++) {
+            SimulatedMower mower = mowers.get(nextReport);
+            nextReport = (nextReport + 1) % mowers.size();
+            mower.advance();
+            publishStatus(mower);
+        }
+    }
+
+    private void publishStatus(SimulatedMower mower) {
+
+        try {
+            client.publish(mower.getCommandOut(), mower.getStatus().getBytes(StandardCharsets.UTF_8), 0, false);
+            reportsSent.incrementAndGet();
+        } catch (MqttException e) {
+            LOGGER.debug("publish of mower {} failed -> {}", mower.getSerialNumber(), e.getMessage());
+        }
+    }
+
+    private void logSummary() {
+
+        long now = System.nanoTime();
+        long cpuTime = getProcessCpuTime();
+        String cpuLoad = "n/a";
+        if (cpuTime >= 0 && lastCpuTime >= 0 && now > lastSummaryTime) {
+            int processors = Runtime.getRuntime().availableProcessors();
+            cpuLoad = String.format("%.1f%%", 100.0 * (cpuTime - lastCpuTime) / (now - lastSummaryTime) / processors);
+        }
+        lastCpuTime = cpuTime;
+        lastSummaryTime = now;
+
+        Runtime runtime = Runtime.getRuntime();
+        long heapUsed = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+
+        MqttMetrics metrics = this.metrics;
+        if (metrics == null) {
+            LOGGER.info("simulation: {} mowers, {} commands received, {} reports sent, heap used {} MB, CPU {}",
+                    mowers.size(), commandsReceived.get(), reportsSent.get(), heapUsed, cpuLoad);
+            return;
+        }
+
+        TrafficStats total = metrics.getTotal();
+        long[] lag = total.getLag().getPercentiles(PERCENTILES);
+        long[] roundTrip = total.getRoundTrip().getPercentiles(PERCENTILES);
+        LagStats puback = total.getPubackLatency();
+
+        LOGGER.info(
+                "simulation: {} mowers, {} commands received, {} reports sent, receiver: {} msg/min in, "
+                        + "{} msg/min out, round trip p50/p95 {}/{} ms, lag p50/p95 {}/{} ms, PUBACK p95 {} ms, heap used {} MB, CPU {}",
+                mowers.size(), commandsReceived.get(), reportsSent.get(), total.getMessagesInPerMinute(),
+                total.getMessagesOutPerMinute(), roundTrip[0], roundTrip[1], lag[0], lag[1],
+                puback.getPercentile(95), heapUsed, cpuLoad);
+    }
+
+    /**
+     * @return CPU time of the process in nanoseconds, -1 if not supported by the JVM
+     */
+    private static long getProcessCpuTime() {
+
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        try {
+            // com.sun.management is not exported to bundles, use reflection
+            Method method = Class.forName("com.sun.management.OperatingSystemMXBean").getMethod("getProcessCpuTime");
+            return (Long) method.invoke(bean);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+}
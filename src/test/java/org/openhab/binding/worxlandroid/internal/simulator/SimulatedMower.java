@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.worxlandroid.internal.simulator;
+
+import static org.openhab.binding.worxlandroid.internal.codes.WorxLandroidStatusCodes.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidActionCodes;
+import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidErrorCodes;
+import org.openhab.binding.worxlandroid.internal.codes.WorxLandroidStatusCodes;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * {@link SimulatedMower} virtual mower of the {@link MowerFleetSimulator}. It answers polls and config commands
+ * with 'cfg'/'dat' documents like a real mower and moves through the status codes of a mowing cycle.
+ *
+ * @author Nils - Initial contribution
+ */
+@NonNullByDefault
+public class SimulatedMower {
+
+    private static final WorxLandroidStatusCodes[] MOWING_CYCLE = { START_SEQUNCE, LEAVING_HOME, FOLLOW_WIRE,
+            MOWING, MOWING, MOWING, MOWING, MOWING, MOWING, GOING_HOME, SEARCHING_WIRE, FOLLOW_WIRE,
+            SEARCHING_HOME };
+    private static final WorxLandroidStatusCodes[] HOMING = { GOING_HOME, SEARCHING_WIRE, FOLLOW_WIRE,
+            SEARCHING_HOME };
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    // probability of a critical state per step while mowing
+    private static final double CRITICAL_PROBABILITY = 0.01;
+
+    private final String serialNumber;
+    private final String commandIn;
+    private final String commandOut;
+    private final Random random;
+
+    private WorxLandroidStatusCodes[] sequence = {};
+    private int step;
+    private WorxLandroidStatusCodes status = HOME;
+    private WorxLandroidErrorCodes error = WorxLandroidErrorCodes.NO_ERR;
+    private int lastCommand;
+
+    private double batteryLevel = 100;
+    private int chargeCycles;
+    private long bladeTime;
+    private long distance;
+    private long workTime;
+
+    private int rainDelay;
+    private int timeExtension;
+    private final String[] scheduleStart = new String[7];
+    private final int[] scheduleDuration = new int[7];
+    private final int[] scheduleEdgecut = new int[7];
+    private final int[] zoneMeters = new int[4];
+    private final int[] allocations = new int[10];
+
+    /**
+     * @param index number of the mower in the fleet
+     * @param topicPrefix first level of the mower topics
+     */
+    public SimulatedMower(int index, String topicPrefix) {
+
+        this.serialNumber = String.format("SIM%09d", index);
+        this.commandIn = String.format("%s/%s/commandIn", topicPrefix, serialNumber);
+        this.commandOut = String.format("%s/%s/commandOut", topicPrefix, serialNumber);
+        this.random = new Random(index);
+
+        for (int day = 0; day < 7; day++) {
+            scheduleStart[day] = String.format("%02d:%02d", 8 + random.nextInt(4), 15 * random.nextInt(4));
+            scheduleDuration[day] = day == 0 ? 0 : 30 * (1 + random.nextInt(6));
+            scheduleEdgecut[day] = random.nextInt(2);
+        }
+        batteryLevel = 50 + random.nextInt(51);
+        bladeTime = random.nextInt(100000);
+        distance = random.nextInt(1000000);
+        workTime = bladeTime + random.nextInt(10000);
+    }
+
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    public String getCommandIn() {
+        return commandIn;
+    }
+
+    public String getCommandOut() {
+        return commandOut;
+    }
+
+    /**
+     * Apply a received command, a poll ('{}') changes nothing.
+     *
+     * @param command payload of 'commandIn'
+     */
+    public synchronized void handleCommand(JsonObject command) {
+
+        JsonElement cmd = command.get("cmd");
+        if (cmd != null) {
+            lastCommand = cmd.getAsInt();
+            if (lastCommand == WorxLandroidActionCodes.START.getCode()) {
+                startSequence(MOWING_CYCLE);
+            } else if (lastCommand == WorxLandroidActionCodes.STOP.getCode()) {
+                sequence = new WorxLandroidStatusCodes[0];
+                status = PAUSE;
+            } else if (lastCommand == WorxLandroidActionCodes.HOME.getCode()) {
+                startSequence(HOMING);
+            }
+        }
+
+        JsonElement rd = command.get("rd");
+        if (rd != null) {
+            rainDelay = rd.getAsInt();
+        }
+
+        JsonElement sc = command.get("sc");
+        if (sc != null && sc.isJsonObject()) {
+            JsonObject schedule = sc.getAsJsonObject();
+            if (schedule.get("p") != null) {
+                timeExtension = schedule.get("p").getAsInt();
+            }
+            if (schedule.get("d") != null) {
+                JsonArray days = schedule.getAsJsonArray("d");
+                for (int day = 0; day < Math.min(7, days.size()); day++) {
+                    JsonArray scheduledDay = days.get(day).getAsJsonArray();
+                    scheduleStart[day] = scheduledDay.get(0).getAsString();
+                    scheduleDuration[day] = scheduledDay.get(1).getAsInt();
+                    scheduleEdgecut[day] = scheduledDay.get(2).getAsInt();
+                }
+            }
+        }
+
+        copy(command.get("mz"), zoneMeters);
+        copy(command.get("mzv"), allocations);
+    }
+
+    /**
+     * Advance one step of the current sequence, start a new mowing cycle occasionally.
+     */
+    public synchronized void advance() {
+
+        if (status.isCritical() || error != WorxLandroidErrorCodes.NO_ERR) {
+            // recovered by the owner
+            error = WorxLandroidErrorCodes.NO_ERR;
+            status = MOWING;
+            return;
+        }
+
+        if (step < sequence.length) {
+            status = sequence[step++];
+            if (status == MOWING && random.nextDouble() < CRITICAL_PROBABILITY) {
+                status = random.nextBoolean() ? LIFTED : TRAPPED;
+                error = status == LIFTED ? WorxLandroidErrorCodes.LIFTED : WorxLandroidErrorCodes.TRAPPED;
+            }
+        } else if (status != HOME && status != PAUSE) {
+            status = HOME;
+            chargeCycles++;
+        } else if (status == HOME && batteryLevel >= 100 && random.nextInt(4) == 0) {
+            startSequence(MOWING_CYCLE);
+        }
+
+        if (status == HOME) {
+            batteryLevel = Math.min(100, batteryLevel + 5);
+        } else if (status != PAUSE) {
+            batteryLevel = Math.max(5, batteryLevel - 1);
+            workTime++;
+            if (status == MOWING) {
+                bladeTime++;
+                distance += 20;
+            }
+        }
+    }
+
+    /**
+     * @return current status document as sent on 'commandOut'
+     */
+    public synchronized String getStatus() {
+
+        LocalDateTime now = LocalDateTime.now();
+
+        JsonArray days = new JsonArray();
+        for (int day = 0; day < 7; day++) {
+            JsonArray scheduledDay = new JsonArray();
+            scheduledDay.add(scheduleStart[day]);
+            scheduledDay.add(scheduleDuration[day]);
+            scheduledDay.add(scheduleEdgecut[day]);
+            days.add(scheduledDay);
+        }
+        JsonObject sc = new JsonObject();
+        sc.addProperty("m", 1);
+        sc.addProperty("p", timeExtension);
+        sc.add("d", days);
+
+        JsonObject cfg = new JsonObject();
+        cfg.addProperty("id", 0);
+        cfg.addProperty("lg", "de");
+        cfg.addProperty("tm", now.format(TIME_FORMATTER));
+        cfg.addProperty("dt", now.format(DATE_FORMATTER));
+        cfg.add("sc", sc);
+        cfg.addProperty("cmd", lastCommand);
+        cfg.add("mz", toArray(zoneMeters));
+        cfg.add("mzv", toArray(allocations));
+        cfg.addProperty("rd", rainDelay);
+        cfg.addProperty("sn", serialNumber);
+
+        JsonObject bt = new JsonObject();
+        bt.addProperty("t", 20 + random.nextInt(100) / 10.0);
+        bt.addProperty("v", 18 + batteryLevel / 50);
+        bt.addProperty("p", (int) batteryLevel);
+        bt.addProperty("nr", chargeCycles);
+        bt.addProperty("c", status == HOME && batteryLevel < 100 ? 1 : 0);
+        bt.addProperty("m", 1);
+
+        JsonArray dmp = new JsonArray();
+        dmp.add(random.nextInt(50) / 10.0);
+        dmp.add(random.nextInt(50) / 10.0);
+        dmp.add(random.nextInt(3600) / 10.0);
+
+        JsonObject st = new JsonObject();
+        st.addProperty("b", bladeTime);
+        st.addProperty("d", distance);
+        st.addProperty("wt", workTime);
+
+        JsonObject dat = new JsonObject();
+        dat.addProperty("mac", String.format("%012X", serialNumber.hashCode() & 0xFFFFFFFFL));
+        dat.addProperty("fw", 3.51);
+        dat.add("bt", bt);
+        dat.add("dmp", dmp);
+        dat.add("st", st);
+        dat.addProperty("ls", status.getCode());
+        dat.addProperty("le", error.getCode());
+        dat.addProperty("lz", 0);
+        dat.addProperty("rsi", -40 - random.nextInt(40));
+        dat.addProperty("lk", 0);
+
+        JsonObject message = new JsonObject();
+        message.add("cfg", cfg);
+        message.add("dat", dat);
+        return message.toString();
+    }
+
+    private void startSequence(WorxLandroidStatusCodes[] sequence) {
+        this.sequence = sequence;
+        this.step = 0;
+        this.error = WorxLandroidErrorCodes.NO_ERR;
+    }
+
+    private static void copy(JsonElement element, int[] values) {
+        if (element != null && element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            for (int i = 0; i < Math.min(values.length, array.size()); i++) {
+                values[i] = array.get(i).getAsInt();
+            }
+        }
+    }
+
+    private static JsonArray toArray(int[] values) {
+        JsonArray array = new JsonArray();
+        for (int value : values) {
+            array.add(value);
+        }
+        return array;
+    }
+}